@@ -24,6 +24,7 @@ public class AuthController {
     private final JwtService jwtService;
     
     private final com.appointment.booking.repository.AvailabilityRepository availabilityRepository;
+    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Authenticates user and returns JWT token")
@@ -94,6 +95,9 @@ public class AuthController {
                 }
             }
             availabilityRepository.saveAll(availabilities);
+            eventPublisher.publishEvent(new com.appointment.booking.event.DoctorProfileChangedEvent(user.getId()));
+            eventPublisher.publishEvent(new com.appointment.booking.event.DoctorAvailabilityChangedEvent(user.getId()));
+            eventPublisher.publishEvent(new com.appointment.booking.event.DoctorScheduleChangedEvent(user.getId()));
         }
 
         return ResponseEntity.ok("User registered successfully");
@@ -1,7 +1,10 @@
 package com.appointment.auth.repository;
 
 import com.appointment.auth.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +19,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhone(String phone);
     
     List<User> findByRole(User.UserRole role);
+    
+    /**
+     * Keyset page of active user ids for a role, in id order
+     */
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActiveIdsByRoleAfter(@Param("role") User.UserRole role,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
 }
@@ -0,0 +1,100 @@
+package com.appointment.auth.security;
+
+import com.appointment.auth.model.User;
+import com.appointment.auth.service.JwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Authenticates STOMP sessions and guards the doctor topics.
+ * <p>
+ * SockJS cannot send headers on the handshake, so the JWT comes in the {@code Authorization}
+ * header of the CONNECT frame and becomes the session's user. A SUBSCRIBE to
+ * {@code /topic/doctor/{id}/**} is rejected unless that user is doctor {@code id}, and
+ * wildcard subscriptions are rejected outright.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String DOCTOR_TOPICS = "/topic/doctor/{doctorId}/**";
+
+    private final JwtService jwtService;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * User of an authenticated STOMP session
+     */
+    public record StompUser(String username, Long userId, String role) implements Principal {
+        @Override
+        public String getName() {
+            return username;
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            authenticate(accessor);
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            authorizeSubscription(accessor);
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return;
+        }
+        try {
+            String jwt = authHeader.substring(7);
+            String username = jwtService.extractUsername(jwt);
+            if (username != null && jwtService.validateToken(jwt, username)) {
+                String role = jwtService.extractClaim(jwt, claims -> claims.get("role", String.class));
+                Long userId = jwtService.extractClaim(jwt, claims -> claims.get("userId", Long.class));
+                accessor.setUser(new StompUser(username, userId, role));
+            }
+        } catch (Exception e) {
+            // The session stays anonymous and cannot subscribe to doctor topics
+            log.warn("Cannot authenticate STOMP session {}: {}", accessor.getSessionId(), e.getMessage());
+        }
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return;
+        }
+        // The brokers accept patterns, and "/topic/**" would take in every doctor's topics
+        if (pathMatcher.isPattern(destination) || destination.contains("#")) {
+            throw new AccessDeniedException("Wildcard subscriptions are not allowed: " + destination);
+        }
+        if (!pathMatcher.match(DOCTOR_TOPICS, destination)) {
+            return;
+        }
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(DOCTOR_TOPICS, destination);
+        if (!(accessor.getUser() instanceof StompUser user)
+                || !User.UserRole.DOCTOR.name().equals(user.role())
+                || !variables.get("doctorId").equals(String.valueOf(user.userId()))) {
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+    }
+}
@@ -1,18 +1,58 @@
 package com.appointment.booking.config;
 
+import com.appointment.auth.security.StompAuthChannelInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+/**
+ * STOMP over SockJS at {@code /ws}.
+ * <p>
+ * A single node uses the in-memory simple broker. With several instances, enable the
+ * relay so every instance publishes to and subscribes through one external STOMP
+ * broker (RabbitMQ, ActiveMQ), and a dashboard receives updates made on any node.
+ * Clients authenticate on CONNECT; see {@link StompAuthChannelInterceptor}.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Value("${websocket.broker.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (relayEnabled) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
@@ -22,4 +62,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
 }
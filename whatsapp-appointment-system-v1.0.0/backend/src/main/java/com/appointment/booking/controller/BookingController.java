@@ -2,6 +2,7 @@ package com.appointment.booking.controller;
 
 import com.appointment.booking.dto.BookingRequest;
 import com.appointment.booking.dto.BookingResponse;
+import com.appointment.booking.dto.CursorPage;
 import com.appointment.booking.model.Booking;
 import com.appointment.booking.model.Slot;
 import com.appointment.booking.service.BookingService;
@@ -17,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -49,6 +51,18 @@ public class BookingController {
         return ResponseEntity.ok(new HoldResponse(holdToken, slotId));
     }
     
+    @PostMapping("/slots/hold")
+    @Operation(summary = "Create slot hold by time", description = "Holds the doctor's slot starting at the given time; use it for slots listed without an id")
+    public ResponseEntity<HoldResponse> createHoldByTime(
+            @RequestParam Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
+            @RequestParam Long patientId) {
+        Slot slot = slotService.resolveSlot(doctorId, date, startTime);
+        String holdToken = slotHoldService.createHold(slot.getId(), patientId);
+        return ResponseEntity.ok(new HoldResponse(holdToken, slot.getId()));
+    }
+    
     @PostMapping("/create")
     @Operation(summary = "Create booking", description = "Creates a booking using a hold token")
     public ResponseEntity<BookingResponse> createBooking(@Valid @RequestBody BookingRequest request) {
@@ -89,12 +103,13 @@ public class BookingController {
     }
     
     @GetMapping("/doctor/{doctorId}/pending")
-    @Operation(summary = "Get pending bookings", description = "Gets all pending bookings for a doctor")
-    public ResponseEntity<List<BookingResponse>> getPendingBookings(@PathVariable Long doctorId) {
-        List<Booking> bookings = bookingService.getPendingBookings(doctorId);
-        return ResponseEntity.ok(bookings.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList()));
+    @Operation(summary = "Get pending bookings", description = "Gets a page of pending bookings for a doctor, earliest first. The X-Next-Cursor header holds the cursor for the next page.")
+    public ResponseEntity<List<BookingResponse>> getPendingBookings(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<BookingResponse> page = bookingService.getPendingBookings(doctorId, cursor, size);
+        return withNextCursor(page);
     }
     
     private BookingResponse mapToResponse(Booking booking) {
@@ -113,6 +128,14 @@ public class BookingController {
                 .build();
     }
     
+    static <T> ResponseEntity<List<T>> withNextCursor(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+    
     public record HoldResponse(String holdToken, Long slotId) {}
 }
 
@@ -3,6 +3,7 @@ package com.appointment.booking.controller;
 import com.appointment.booking.dto.ConfirmRequestDto;
 import com.appointment.booking.dto.RejectRequestDto;
 import com.appointment.booking.dto.DashboardMetricsDto;
+import com.appointment.booking.dto.PatientVisitDTO;
 import com.appointment.booking.model.Booking;
 import com.appointment.booking.model.PendingAppointmentRequest;
 import com.appointment.booking.service.BookingService;
@@ -22,7 +23,7 @@ import java.util.List;
 @RequestMapping("/doctor/dashboard")
 @RequiredArgsConstructor
 @Tag(name = "Doctor Dashboard", description = "Doctor dashboard APIs")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = {"X-Next-Cursor", "X-Total-Count"})
 public class DoctorDashboardController {
     
     private final PendingRequestService pendingRequestService;
@@ -67,11 +68,11 @@ public class DoctorDashboardController {
 
     @GetMapping("/patients/search")
     @Operation(summary = "Search patient history by phone")
-    public ResponseEntity<List<Booking>> searchPatientBookings(
-            @RequestParam String phone) {
-        // Using the new repository method.
-        List<Booking> history = bookingService.getBookingRepository().findByPatientPhoneOrderByBookingDateDesc(phone);
-        return ResponseEntity.ok(history);
+    public ResponseEntity<List<PatientVisitDTO>> searchPatientBookings(
+            @RequestParam String phone,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return BookingController.withNextCursor(bookingService.getPatientVisits(phone, cursor, size));
     }
     
     @GetMapping("/metrics")
@@ -2,31 +2,38 @@ package com.appointment.booking.controller;
 
 import com.appointment.booking.dto.PatientBookingRequest;
 import com.appointment.booking.dto.DoctorLookupResponse;
+import com.appointment.booking.dto.EarliestAvailabilityResponse;
 import com.appointment.booking.model.PendingAppointmentRequest;
 import com.appointment.booking.model.Slot;
+import com.appointment.booking.service.AvailabilityEngine;
+import com.appointment.booking.service.DoctorDirectory;
+import com.appointment.booking.service.FreeSlotIndex;
 import com.appointment.booking.service.PendingRequestService;
 import com.appointment.booking.service.SlotService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/patient/bookings")
 @RequiredArgsConstructor
 @Tag(name = "Patient Booking", description = "Patient-facing booking APIs")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = {"X-Next-Cursor", "X-Total-Count"})
 public class PatientBookingController {
     
     private final com.appointment.auth.repository.UserRepository userRepository;
@@ -34,53 +41,80 @@ public class PatientBookingController {
     private final SlotService slotService;
     private final PendingRequestService pendingRequestService;
     private final com.appointment.booking.service.BookingService bookingService;
+    private final AvailabilityEngine availabilityEngine;
+    private final FreeSlotIndex freeSlotIndex;
+    private final DoctorDirectory doctorDirectory;
+    
+    private static final int MAX_FREE_SLOT_RANGE_DAYS = 31;
+    private static final int MAX_NEXT_SLOTS = 50;
+    private static final int MAX_EARLIEST_DOCTORS = 50;
+    private static final int DEFAULT_DOCTOR_PAGE_SIZE = 20;
+    private static final int MAX_DOCTOR_PAGE_SIZE = 100;
     
     @GetMapping("/specializations")
     @Operation(summary = "Get all filters", description = "Returns available specializations and unique qualifications")
-    public ResponseEntity<Map<String, Object>> getFilters() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("specializations", specializationRepository.findAll());
+    public ResponseEntity<Map<String, Object>> getFilters(WebRequest webRequest) {
+        DoctorDirectory.Snapshot directory = doctorDirectory.snapshot();
+        if (webRequest.checkNotModified(directory.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(directory.etag()).build();
+        }
         
-        List<String> qualifications = userRepository.findByRole(com.appointment.auth.model.User.UserRole.DOCTOR)
-                .stream()
-                .map(com.appointment.auth.model.User::getQualification)
-                .filter(q -> q != null && !q.isEmpty())
-                .distinct()
-                .collect(Collectors.toList());
-        response.put("qualifications", qualifications);
+        Map<String, Object> response = new HashMap<>();
+        response.put("specializations", directory.specializations());
+        response.put("qualifications", directory.qualifications());
         
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(directory.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(response);
     }
 
     @GetMapping("/doctors")
-    @Operation(summary = "List all doctors", description = "Returns a list of doctors, optionally filtered by specialization or qualification")
+    @Operation(summary = "List all doctors", description = "Returns a list of doctors, optionally filtered by specialization or qualification and paged with page/size")
     public ResponseEntity<List<DoctorLookupResponse.DoctorInfo>> listDoctors(
             @RequestParam(required = false) Long specializationId,
-            @RequestParam(required = false) String qualification) {
-        
-        List<com.appointment.auth.model.User> doctors = userRepository.findByRole(com.appointment.auth.model.User.UserRole.DOCTOR);
+            @RequestParam(required = false) String qualification,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        DoctorDirectory.Snapshot directory = doctorDirectory.snapshot();
+        if (webRequest.checkNotModified(directory.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(directory.etag()).build();
+        }
         
-        List<DoctorLookupResponse.DoctorInfo> doctorInfos = doctors.stream()
-                .filter(d -> specializationId == null || (d.getSpecializationId() != null && d.getSpecializationId().equals(specializationId)))
-                .filter(d -> qualification == null || (d.getQualification() != null && d.getQualification().equalsIgnoreCase(qualification)))
-                .map(doctor -> {
-                    String specName = "General";
-                    if (doctor.getSpecializationId() != null) {
-                        specName = specializationRepository.findById(doctor.getSpecializationId())
-                                .map(com.appointment.booking.model.Specialization::getName)
-                                .orElse("General");
-                    }
-                    
-                    return DoctorLookupResponse.DoctorInfo.builder()
-                            .id(doctor.getId())
-                            .name(doctor.getName() != null ? doctor.getName() : doctor.getUsername())
-                            .phone(doctor.getPhone())
-                            .specialization(specName)
-                            .qualification(doctor.getQualification() != null ? doctor.getQualification() : "-")
-                            .build();
-                }).collect(Collectors.toList());
+        List<DoctorDirectory.DoctorEntry> matches = directory.find(specializationId, qualification);
+        List<DoctorDirectory.DoctorEntry> pageContent = matches;
+        if (page != null || size != null) {
+            int pageNumber = page != null ? page : 0;
+            int pageSize = size != null ? size : DEFAULT_DOCTOR_PAGE_SIZE;
+            if (pageNumber < 0 || pageSize < 1 || pageSize > MAX_DOCTOR_PAGE_SIZE) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "page must be >= 0 and size between 1 and " + MAX_DOCTOR_PAGE_SIZE);
+            }
+            int from = (int) Math.min((long) pageNumber * pageSize, matches.size());
+            pageContent = matches.subList(from, Math.min(from + pageSize, matches.size()));
+        }
 
-        return ResponseEntity.ok(doctorInfos);
+        return ResponseEntity.ok()
+                .eTag(directory.etag())
+                .cacheControl(CacheControl.noCache())
+                .header("X-Total-Count", String.valueOf(matches.size()))
+                .body(pageContent.stream().map(DoctorDirectory.DoctorEntry::info).toList());
+    }
+
+    @GetMapping("/doctors/earliest")
+    @Operation(summary = "Earliest availability across doctors", description = "Returns the doctors with the earliest free slots, optionally filtered by specialization or qualification")
+    public ResponseEntity<List<EarliestAvailabilityResponse>> findEarliestAvailability(
+            @RequestParam(required = false) Long specializationId,
+            @RequestParam(required = false) String qualification,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_EARLIEST_DOCTORS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_EARLIEST_DOCTORS);
+        }
+        if (!freeSlotIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Availability index is warming up");
+        }
+        return ResponseEntity.ok(freeSlotIndex.findEarliest(specializationId, qualification, limit));
     }
 
     @GetMapping("/doctor/lookup")
@@ -121,6 +155,31 @@ public class PatientBookingController {
         return ResponseEntity.ok(slots);
     }
     
+    @GetMapping("/slots/free")
+    @Operation(summary = "Get free slots for a date range", description = "Computes free slots in memory from availability, exceptions and bookings; held slots are left out")
+    public ResponseEntity<List<Slot>> getFreeSlots(
+            @RequestParam Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_FREE_SLOT_RANGE_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must be ordered and at most " + MAX_FREE_SLOT_RANGE_DAYS + " days");
+        }
+        return ResponseEntity.ok(slotService.attachSlotRows(availabilityEngine.getFreeSlots(doctorId, startDate, endDate)));
+    }
+    
+    @GetMapping("/slots/next")
+    @Operation(summary = "Get next free slots", description = "Returns the next free slots of a doctor from now on")
+    public ResponseEntity<List<Slot>> getNextFreeSlots(
+            @RequestParam Long doctorId,
+            @RequestParam(defaultValue = "5") int count) {
+        if (count < 1 || count > MAX_NEXT_SLOTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be between 1 and " + MAX_NEXT_SLOTS);
+        }
+        return ResponseEntity.ok(slotService.attachSlotRows(
+                availabilityEngine.getNextFreeSlots(doctorId, LocalDateTime.now(), count)));
+    }
+    
     @PostMapping("/request")
     @Operation(summary = "Create pending appointment request")
     public ResponseEntity<PendingAppointmentRequest> createRequest(
@@ -143,8 +202,11 @@ public class PatientBookingController {
     }
 
     @GetMapping("/list")
-    @Operation(summary = "List bookings for a patient")
-    public ResponseEntity<List<com.appointment.booking.dto.PatientBookingDTO>> listBookings(@RequestParam Long patientId) {
-        return ResponseEntity.ok(bookingService.getPatientBookingsDTO(patientId));
+    @Operation(summary = "List bookings for a patient", description = "Most recent first; the X-Next-Cursor header holds the cursor for the next page")
+    public ResponseEntity<List<com.appointment.booking.dto.PatientBookingDTO>> listBookings(
+            @RequestParam Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return BookingController.withNextCursor(bookingService.getPatientBookingsDTO(patientId, cursor, size));
     }
 }
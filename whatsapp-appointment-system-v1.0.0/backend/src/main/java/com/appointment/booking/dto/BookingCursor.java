@@ -0,0 +1,52 @@
+package com.appointment.booking.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a booking listing ordered by (booking_date, start_time, id).
+ * Sent to clients as an opaque URL-safe string.
+ */
+public record BookingCursor(LocalDate bookingDate, LocalTime startTime, Long id) {
+
+    /**
+     * Before every booking, for ascending listings
+     */
+    public static final BookingCursor FIRST = new BookingCursor(LocalDate.of(1, 1, 1), LocalTime.MIN, 0L);
+
+    /**
+     * After every booking, for descending listings
+     */
+    public static final BookingCursor LAST = new BookingCursor(LocalDate.of(9999, 12, 31), LocalTime.MAX, Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = bookingDate + "|" + startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Encoded cursor, or null for the first page
+     * @param start Cursor to use for the first page
+     * @throws ResponseStatusException 400 for a malformed cursor
+     */
+    public static BookingCursor decode(String cursor, BookingCursor start) {
+        if (cursor == null || cursor.isBlank()) {
+            return start;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected 3 parts");
+            }
+            return new BookingCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
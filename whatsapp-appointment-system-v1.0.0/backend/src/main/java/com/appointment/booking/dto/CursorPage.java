@@ -0,0 +1,9 @@
+package com.appointment.booking.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing
+ * @param nextCursor Cursor for the following page, null on the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {}
@@ -0,0 +1,18 @@
+package com.appointment.booking.dto;
+
+import com.appointment.booking.model.Slot;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarliestAvailabilityResponse {
+    private DoctorLookupResponse.DoctorInfo doctor;
+    private List<Slot> slots;
+}
@@ -0,0 +1,27 @@
+package com.appointment.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A past or upcoming visit in a patient's history as seen by the doctor
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientVisitDTO {
+    private Long id;
+    private Long doctorId;
+    private String doctorName;
+    private LocalDate bookingDate;
+    private LocalTime startTime;
+    private String status;
+    private String diseaseDescription;
+    private String doctorNotes;
+}
@@ -0,0 +1,12 @@
+package com.appointment.booking.event;
+
+import com.appointment.booking.model.Booking.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Published when a booking is created or changes status
+ */
+public record BookingChangedEvent(Long doctorId, Long bookingId, LocalDate bookingDate, LocalTime startTime,
+                                  BookingStatus status) {}
@@ -0,0 +1,8 @@
+package com.appointment.booking.event;
+
+import com.appointment.booking.repository.DoctorDailyMetricsRepository.DailyMetrics;
+
+/**
+ * Published when a doctor's row in the daily metrics rollup has been recomputed
+ */
+public record DailyMetricsChangedEvent(DailyMetrics metrics) {}
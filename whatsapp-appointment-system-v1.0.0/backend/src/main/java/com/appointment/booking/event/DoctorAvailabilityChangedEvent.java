@@ -0,0 +1,7 @@
+package com.appointment.booking.event;
+
+/**
+ * Published when something that affects a doctor's free time changes
+ * (a booking is created, accepted, cancelled or completed, or the weekly availability is replaced)
+ */
+public record DoctorAvailabilityChangedEvent(Long doctorId) {}
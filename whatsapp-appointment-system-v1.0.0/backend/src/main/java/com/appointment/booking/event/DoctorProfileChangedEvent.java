@@ -0,0 +1,6 @@
+package com.appointment.booking.event;
+
+/**
+ * Published when a doctor account is created or its listing fields change
+ */
+public record DoctorProfileChangedEvent(Long doctorId) {}
@@ -0,0 +1,7 @@
+package com.appointment.booking.event;
+
+/**
+ * Published when a doctor's weekly availability or exceptions are created or replaced,
+ * i.e. when the slots that should exist change (unlike bookings, which only use them)
+ */
+public record DoctorScheduleChangedEvent(Long doctorId) {}
@@ -0,0 +1,13 @@
+package com.appointment.booking.event;
+
+/**
+ * Published when an appointment request waiting for a doctor is created or resolved
+ */
+public record PendingRequestChangedEvent(Long doctorId, Long requestId, Change change) {
+
+    public enum Change {
+        CREATED,
+        CONFIRMED,
+        REJECTED
+    }
+}
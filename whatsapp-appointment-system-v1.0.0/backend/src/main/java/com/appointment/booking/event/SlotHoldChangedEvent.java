@@ -0,0 +1,14 @@
+package com.appointment.booking.event;
+
+import java.time.Instant;
+
+/**
+ * Published when a slot hold is created or removed
+ * @param expiresAt When the hold lapses, or null when it was released or consumed
+ */
+public record SlotHoldChangedEvent(Long slotId, Instant expiresAt) {
+
+    public boolean isReleased() {
+        return expiresAt == null;
+    }
+}
@@ -95,6 +95,12 @@ public class Booking {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    @Column(name = "reminder_24h_sent_at")
+    private LocalDateTime reminder24hSentAt;
+
+    @Column(name = "reminder_1h_sent_at")
+    private LocalDateTime reminder1hSentAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
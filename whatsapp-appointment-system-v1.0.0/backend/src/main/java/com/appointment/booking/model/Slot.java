@@ -1,5 +1,6 @@
 package com.appointment.booking.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -38,6 +39,19 @@ public class Slot {
     @Builder.Default
     private SlotStatus status = SlotStatus.AVAILABLE;
 
+    // Set only by the database hold backend; the token is a secret of the holding patient
+    @JsonIgnore
+    @Column(name = "hold_token", length = 64)
+    private String holdToken;
+
+    @JsonIgnore
+    @Column(name = "held_by")
+    private Long heldBy;
+
+    @JsonIgnore
+    @Column(name = "held_until")
+    private LocalDateTime heldUntil;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -57,7 +71,7 @@ public class Slot {
 
     public enum SlotStatus {
         AVAILABLE,
-        HELD,        // Temporarily held (Redis)
+        HELD,        // Temporarily held (database hold backend)
         BOOKED,
         CANCELLED
     }
@@ -0,0 +1,64 @@
+package com.appointment.booking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One execution of the nightly slot generation job, with the doctor id watermark it can resume from
+ */
+@Entity
+@Table(name = "slot_generation_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotGenerationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_date", nullable = false, unique = true)
+    private LocalDate runDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private RunStatus status;
+
+    @Column(name = "resume_after_doctor_id", nullable = false)
+    @Builder.Default
+    private Long resumeAfterDoctorId = 0L;
+
+    @Column(name = "doctors_processed", nullable = false)
+    @Builder.Default
+    private Integer doctorsProcessed = 0;
+
+    @Column(name = "slots_created", nullable = false)
+    @Builder.Default
+    private Long slotsCreated = 0L;
+
+    @Column(name = "failed_chunks", nullable = false)
+    @Builder.Default
+    private Integer failedChunks = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package com.appointment.booking.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Last date up to which a doctor's slots have been materialized in the slots table
+ */
+@Entity
+@Table(name = "slot_horizons")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHorizon {
+    @Id
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Column(name = "materialized_through", nullable = false)
+    private LocalDate materializedThrough;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -17,5 +17,7 @@ public interface AvailabilityExceptionRepository extends JpaRepository<Availabil
     List<AvailabilityException> findByDoctorIdAndExceptionDateBetween(
             Long doctorId, LocalDate startDate, LocalDate endDate
     );
+    
+    List<AvailabilityException> findByExceptionDateBetween(LocalDate startDate, LocalDate endDate);
 }
 
@@ -0,0 +1,97 @@
+package com.appointment.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Claims confirmed bookings that are due for a reminder.
+ * A claim sets the reminder marker in the same statement that selects the rows
+ * (FOR UPDATE SKIP LOCKED), so concurrent instances never pick the same booking.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingReminderRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public enum ReminderKind {
+        DAY_BEFORE("reminder_24h_sent_at", 24),
+        HOUR_BEFORE("reminder_1h_sent_at", 1);
+        
+        private final String markerColumn;
+        private final int hoursBefore;
+        
+        ReminderKind(String markerColumn, int hoursBefore) {
+            this.markerColumn = markerColumn;
+            this.hoursBefore = hoursBefore;
+        }
+        
+        public int getHoursBefore() {
+            return hoursBefore;
+        }
+    }
+    
+    /**
+     * A claimed booking with the fields needed to address the reminder
+     */
+    public record ReminderTarget(Long bookingId, String bookingNumber, Long doctorId, Long patientId,
+                                 String patientName, String patientPhone, LocalDate bookingDate, LocalTime startTime) {}
+    
+    /**
+     * Claims the next page of due bookings after the cursor, in (booking_date, start_time, id) order
+     * @param afterDate Cursor date (exclusive together with time and id)
+     * @param until Upper bound of the appointment start (exclusive)
+     * @return Claimed bookings ordered by the cursor columns
+     */
+    public List<ReminderTarget> claimNext(ReminderKind kind, LocalDate afterDate, LocalTime afterTime, long afterId,
+                                          LocalDateTime until, int limit) {
+        String sql =
+                "WITH due AS (" +
+                "  SELECT id FROM bookings" +
+                "  WHERE status = 'CONFIRMED' AND " + kind.markerColumn + " IS NULL" +
+                "    AND (booking_date, start_time, id) > (?, ?, ?)" +
+                "    AND (booking_date, start_time) < (?, ?)" +
+                "  ORDER BY booking_date, start_time, id" +
+                "  LIMIT ?" +
+                "  FOR UPDATE SKIP LOCKED" +
+                ") " +
+                "UPDATE bookings b SET " + kind.markerColumn + " = now() FROM due WHERE b.id = due.id " +
+                "RETURNING b.id, b.booking_number, b.doctor_id, b.patient_id, b.patient_name, b.patient_phone, " +
+                "b.booking_date, b.start_time";
+        List<ReminderTarget> claimed = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new ReminderTarget(
+                        rs.getLong("id"),
+                        rs.getString("booking_number"),
+                        rs.getLong("doctor_id"),
+                        (Long) rs.getObject("patient_id", Long.class),
+                        rs.getString("patient_name"),
+                        rs.getString("patient_phone"),
+                        rs.getDate("booking_date").toLocalDate(),
+                        rs.getTime("start_time").toLocalTime()),
+                Date.valueOf(afterDate), Time.valueOf(afterTime), afterId,
+                Date.valueOf(until.toLocalDate()), Time.valueOf(until.toLocalTime()),
+                limit);
+        // RETURNING does not keep the CTE order
+        return claimed.stream()
+                .sorted(Comparator.comparing(ReminderTarget::bookingDate)
+                        .thenComparing(ReminderTarget::startTime)
+                        .thenComparing(ReminderTarget::bookingId))
+                .toList();
+    }
+    
+    /**
+     * Clears the marker after a failed send so the next run retries the booking
+     */
+    public void release(ReminderKind kind, Long bookingId) {
+        jdbcTemplate.update("UPDATE bookings SET " + kind.markerColumn + " = NULL WHERE id = ?", bookingId);
+    }
+}
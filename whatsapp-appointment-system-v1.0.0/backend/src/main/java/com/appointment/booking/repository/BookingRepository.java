@@ -2,12 +2,18 @@ package com.appointment.booking.repository;
 
 import com.appointment.booking.model.Booking;
 import com.appointment.booking.model.Booking.BookingStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,14 +47,140 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findConflictingBookings(
             @Param("doctorId") Long doctorId, 
             @Param("date") LocalDate date, 
-            @Param("startTime") java.time.LocalTime startTime, 
-            @Param("endTime") java.time.LocalTime endTime,
+            @Param("startTime") LocalTime startTime, 
+            @Param("endTime") LocalTime endTime,
             @Param("statuses") List<BookingStatus> statuses
     );
 
-    List<Booking> findByPatientPhoneOrderByBookingDateDesc(String patientPhone);
+    @Query("SELECT b.doctorId AS doctorId, b.bookingDate AS bookingDate, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.doctorId = :doctorId AND b.bookingDate BETWEEN :startDate AND :endDate AND b.status IN :statuses")
+    List<BookingInterval> findBlockingBookingsBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("statuses") List<BookingStatus> statuses
+    );
+    
+    @Query("SELECT b.doctorId AS doctorId, b.bookingDate AS bookingDate, b.startTime AS startTime, b.endTime AS endTime " +
+           "FROM Booking b WHERE b.bookingDate BETWEEN :startDate AND :endDate AND b.status IN :statuses")
+    List<BookingInterval> findAllBlockingBookingsBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("statuses") List<BookingStatus> statuses
+    );
 
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.doctorId = :doctorId AND b.bookingDate = :date")
     long countByDoctorIdAndDate(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+
+    /**
+     * Stores the payment link without touching the rest of the (possibly concurrently updated) row
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.paymentLinkUrl = :url WHERE b.id = :bookingId")
+    int updatePaymentLinkUrl(@Param("bookingId") Long bookingId, @Param("url") String url);
+    
+    /**
+     * A patient's bookings, newest first, strictly after the cursor (keyset pagination)
+     */
+    @Query("SELECT b.id AS id, b.doctorId AS doctorId, b.bookingDate AS bookingDate, b.startTime AS startTime, " +
+           "b.status AS status, b.paymentLinkUrl AS paymentLinkUrl, b.totalAmount AS totalAmount " +
+           "FROM Booking b WHERE b.patientId = :patientId AND (b.bookingDate < :date " +
+           "OR (b.bookingDate = :date AND (b.startTime < :time OR (b.startTime = :time AND b.id < :id)))) " +
+           "ORDER BY b.bookingDate DESC, b.startTime DESC, b.id DESC")
+    List<PatientBookingRow> findPatientBookingsBefore(
+            @Param("patientId") Long patientId,
+            @Param("date") LocalDate date,
+            @Param("time") LocalTime time,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    /**
+     * Visit history for a phone number, newest first, strictly after the cursor
+     */
+    @Query("SELECT b.id AS id, b.doctorId AS doctorId, b.bookingDate AS bookingDate, b.startTime AS startTime, " +
+           "b.status AS status, b.diseaseDescription AS diseaseDescription, b.doctorNotes AS doctorNotes " +
+           "FROM Booking b WHERE b.patientPhone = :phone AND (b.bookingDate < :date " +
+           "OR (b.bookingDate = :date AND (b.startTime < :time OR (b.startTime = :time AND b.id < :id)))) " +
+           "ORDER BY b.bookingDate DESC, b.startTime DESC, b.id DESC")
+    List<PatientVisitRow> findVisitsByPhoneBefore(
+            @Param("phone") String phone,
+            @Param("date") LocalDate date,
+            @Param("time") LocalTime time,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    /**
+     * A doctor's bookings in the given status, earliest first, strictly after the cursor
+     */
+    @Query("SELECT b.id AS id, b.bookingNumber AS bookingNumber, b.doctorId AS doctorId, b.patientId AS patientId, " +
+           "b.slotId AS slotId, b.bookingDate AS bookingDate, b.startTime AS startTime, b.endTime AS endTime, " +
+           "b.status AS status, b.notes AS notes, b.createdAt AS createdAt " +
+           "FROM Booking b WHERE b.doctorId = :doctorId AND b.status = :status AND (b.bookingDate > :date " +
+           "OR (b.bookingDate = :date AND (b.startTime > :time OR (b.startTime = :time AND b.id > :id)))) " +
+           "ORDER BY b.bookingDate ASC, b.startTime ASC, b.id ASC")
+    List<DoctorBookingRow> findDoctorBookingsAfter(
+            @Param("doctorId") Long doctorId,
+            @Param("status") BookingStatus status,
+            @Param("date") LocalDate date,
+            @Param("time") LocalTime time,
+            @Param("id") Long id,
+            Pageable pageable
+    );
+
+    /**
+     * Columns shown in the patient's booking list
+     */
+    interface PatientBookingRow {
+        Long getId();
+        Long getDoctorId();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        BookingStatus getStatus();
+        String getPaymentLinkUrl();
+        BigDecimal getTotalAmount();
+    }
+
+    /**
+     * Columns shown in a patient's visit history on the doctor dashboard
+     */
+    interface PatientVisitRow {
+        Long getId();
+        Long getDoctorId();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        BookingStatus getStatus();
+        String getDiseaseDescription();
+        String getDoctorNotes();
+    }
+
+    /**
+     * Columns of a {@link com.appointment.booking.dto.BookingResponse}
+     */
+    interface DoctorBookingRow {
+        Long getId();
+        String getBookingNumber();
+        Long getDoctorId();
+        Long getPatientId();
+        Long getSlotId();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        BookingStatus getStatus();
+        String getNotes();
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * Time occupied by a booking, without loading the entity
+     */
+    interface BookingInterval {
+        Long getDoctorId();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+    }
 }
 
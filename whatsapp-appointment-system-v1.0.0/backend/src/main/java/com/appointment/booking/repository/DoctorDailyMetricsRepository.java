@@ -0,0 +1,109 @@
+package com.appointment.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for the per doctor, per day booking rollup.
+ * <p>
+ * Every write recomputes whole rows from {@code bookings} and {@code payments} and
+ * upserts them, so refreshing a day is idempotent and events may be replayed or
+ * arrive out of order. Revenue is successful payments, attributed to the day of the
+ * appointment they pay for.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DoctorDailyMetricsRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO doctor_daily_metrics (doctor_id, metric_date, bookings_total, pending_count, " +
+            "confirmed_count, completed_count, cancelled_count, revenue, updated_at) " +
+            "SELECT b.doctor_id, b.booking_date, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE b.status = 'PENDING'), " +
+            "COUNT(*) FILTER (WHERE b.status IN ('CONFIRMED', 'ACCEPTED')), " +
+            "COUNT(*) FILTER (WHERE b.status IN ('COMPLETED', 'PAID')), " +
+            "COUNT(*) FILTER (WHERE b.status = 'CANCELLED'), " +
+            "COALESCE(SUM(pay.amount), 0), now() " +
+            "FROM bookings b " +
+            "LEFT JOIN LATERAL (SELECT SUM(p.amount) AS amount FROM payments p " +
+            "  WHERE p.booking_id = b.id AND p.status = 'SUCCESS') pay ON TRUE " +
+            "WHERE %s " +
+            "GROUP BY b.doctor_id, b.booking_date " +
+            "ON CONFLICT (doctor_id, metric_date) DO UPDATE SET " +
+            "bookings_total = EXCLUDED.bookings_total, pending_count = EXCLUDED.pending_count, " +
+            "confirmed_count = EXCLUDED.confirmed_count, completed_count = EXCLUDED.completed_count, " +
+            "cancelled_count = EXCLUDED.cancelled_count, revenue = EXCLUDED.revenue, updated_at = now()";
+
+    private static final String RETURNING =
+            " RETURNING doctor_id, metric_date, bookings_total, pending_count, confirmed_count, completed_count, " +
+            "cancelled_count, revenue";
+
+    private static final RowMapper<DailyMetrics> ROW_MAPPER = (rs, rowNum) -> new DailyMetrics(
+            rs.getLong("doctor_id"),
+            rs.getDate("metric_date").toLocalDate(),
+            rs.getInt("bookings_total"),
+            rs.getInt("pending_count"),
+            rs.getInt("confirmed_count"),
+            rs.getInt("completed_count"),
+            rs.getInt("cancelled_count"),
+            rs.getBigDecimal("revenue"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Aggregates for one doctor and day
+     */
+    public record DailyMetrics(Long doctorId, LocalDate date, int bookingsTotal, int pendingCount,
+                               int confirmedCount, int completedCount, int cancelledCount, BigDecimal revenue) {}
+
+    /**
+     * Recomputes the day of the booking's doctor the booking falls on
+     * @return The refreshed row, empty when the booking does not exist
+     */
+    public Optional<DailyMetrics> refreshForBooking(Long bookingId) {
+        return jdbcTemplate.query(String.format(UPSERT,
+                "(b.doctor_id, b.booking_date) = (SELECT doctor_id, booking_date FROM bookings WHERE id = ?)") + RETURNING,
+                ROW_MAPPER, bookingId).stream().findFirst();
+    }
+
+    /**
+     * Recomputes the day of the booking the payment belongs to
+     * @return The refreshed row, empty when the payment or its booking does not exist
+     */
+    public Optional<DailyMetrics> refreshForPayment(Long paymentId) {
+        return jdbcTemplate.query(String.format(UPSERT,
+                "(b.doctor_id, b.booking_date) = (SELECT bk.doctor_id, bk.booking_date FROM payments p " +
+                "JOIN bookings bk ON bk.id = p.booking_id WHERE p.id = ?)") + RETURNING,
+                ROW_MAPPER, paymentId).stream().findFirst();
+    }
+
+    /**
+     * Rebuilds every row in {@code [from, to]}; run inside a transaction so readers
+     * never see the range half rebuilt
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        jdbcTemplate.update("DELETE FROM doctor_daily_metrics WHERE metric_date BETWEEN ? AND ?",
+                Date.valueOf(from), Date.valueOf(to));
+        return jdbcTemplate.update(String.format(UPSERT, "b.booking_date BETWEEN ? AND ?"),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Stored days for a doctor in {@code [from, to]}, in date order; days without bookings have no row
+     */
+    public List<DailyMetrics> findByDoctorBetween(Long doctorId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT doctor_id, metric_date, bookings_total, pending_count, confirmed_count, completed_count, " +
+                "cancelled_count, revenue FROM doctor_daily_metrics " +
+                "WHERE doctor_id = ? AND metric_date BETWEEN ? AND ? ORDER BY metric_date",
+                ROW_MAPPER, doctorId, Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,83 @@
+package com.appointment.booking.repository;
+
+import com.appointment.booking.model.Slot;
+import com.appointment.booking.model.Slot.SlotStatus;
+import com.appointment.booking.service.SlotPlanner.PlannedSlot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Set-based slot statements that would be too chatty through JPA
+ * (IDENTITY ids disable Hibernate insert batching)
+ */
+@Repository
+@RequiredArgsConstructor
+public class SlotBatchRepository {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static final String INSERT_SLOT_SQL =
+            "INSERT INTO slots (doctor_id, slot_date, start_time, end_time, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, 'AVAILABLE', now(), now()) " +
+            "ON CONFLICT (doctor_id, slot_date, start_time, end_time) DO NOTHING";
+    
+    private static final String FIND_ROWS_SQL =
+            "SELECT s.id, s.doctor_id, s.slot_date, s.start_time, s.status FROM slots s " +
+            "JOIN unnest(?::bigint[], ?::date[], ?::time[]) AS k(doctor_id, slot_date, start_time) " +
+            "ON s.doctor_id = k.doctor_id AND s.slot_date = k.slot_date AND s.start_time = k.start_time";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Materialized row of a slot, as far as availability is concerned
+     */
+    public record SlotRow(Long id, Long doctorId, LocalDate slotDate, LocalTime startTime, SlotStatus status) {}
+    
+    /**
+     * Inserts the given slots as AVAILABLE using JDBC batches; slots that already
+     * exist (e.g. written concurrently by another node) are skipped by the unique constraint
+     * @return Number of slots submitted for insertion
+     */
+    public int insertSlots(Long doctorId, List<PlannedSlot> slots) {
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, slots, BATCH_SIZE, (ps, slot) -> {
+            ps.setLong(1, doctorId);
+            ps.setDate(2, Date.valueOf(slot.date()));
+            ps.setTime(3, Time.valueOf(slot.startTime()));
+            ps.setTime(4, Time.valueOf(slot.endTime()));
+        });
+        return slots.size();
+    }
+    
+    /**
+     * Looks up the rows of the given slots (matched on doctor, date and start time) in one query
+     * @return Rows of the slots that are materialized, in no particular order
+     */
+    public List<SlotRow> findRows(List<Slot> slots) {
+        if (slots.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_ROWS_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", slots.stream().map(Slot::getDoctorId).toArray()));
+            ps.setArray(2, con.createArrayOf("date", slots.stream().map(slot -> Date.valueOf(slot.getSlotDate())).toArray()));
+            ps.setArray(3, con.createArrayOf("time", slots.stream().map(slot -> Time.valueOf(slot.getStartTime())).toArray()));
+            return ps;
+        }, (rs, rowNum) -> new SlotRow(
+                rs.getLong("id"),
+                rs.getLong("doctor_id"),
+                rs.getDate("slot_date").toLocalDate(),
+                rs.getTime("start_time").toLocalTime(),
+                SlotStatus.valueOf(rs.getString("status"))));
+    }
+}
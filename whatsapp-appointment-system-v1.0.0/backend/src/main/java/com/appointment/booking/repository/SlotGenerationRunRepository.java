@@ -0,0 +1,42 @@
+package com.appointment.booking.repository;
+
+import com.appointment.booking.model.SlotGenerationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface SlotGenerationRunRepository extends JpaRepository<SlotGenerationRun, Long> {
+    
+    Optional<SlotGenerationRun> findByRunDate(LocalDate runDate);
+    
+    /**
+     * Records a finished chunk; the watermark only ever moves forward
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE slot_generation_runs SET " +
+                   "resume_after_doctor_id = GREATEST(resume_after_doctor_id, :watermark), " +
+                   "doctors_processed = doctors_processed + :doctors, " +
+                   "slots_created = slots_created + :slots, " +
+                   "updated_at = now() " +
+                   "WHERE id = :runId",
+           nativeQuery = true)
+    int recordProgress(@Param("runId") Long runId,
+                       @Param("watermark") Long watermark,
+                       @Param("doctors") int doctors,
+                       @Param("slots") long slots);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE slot_generation_runs SET failed_chunks = failed_chunks + 1, " +
+                   "last_error = :error, updated_at = now() WHERE id = :runId",
+           nativeQuery = true)
+    int recordFailure(@Param("runId") Long runId, @Param("error") String error);
+}
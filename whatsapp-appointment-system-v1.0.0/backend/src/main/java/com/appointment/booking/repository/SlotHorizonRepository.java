@@ -0,0 +1,26 @@
+package com.appointment.booking.repository;
+
+import com.appointment.booking.model.SlotHorizon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface SlotHorizonRepository extends JpaRepository<SlotHorizon, Long> {
+    
+    /**
+     * Moves the horizon forward (never backwards)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO slot_horizons (doctor_id, materialized_through, updated_at) " +
+                   "VALUES (:doctorId, :through, now()) " +
+                   "ON CONFLICT (doctor_id) DO UPDATE SET " +
+                   "materialized_through = GREATEST(slot_horizons.materialized_through, EXCLUDED.materialized_through), " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int advance(@Param("doctorId") Long doctorId, @Param("through") LocalDate through);
+}
@@ -3,12 +3,16 @@ package com.appointment.booking.repository;
 import com.appointment.booking.model.Slot;
 import com.appointment.booking.model.Slot.SlotStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,5 +35,123 @@ public interface SlotRepository extends JpaRepository<Slot, Long> {
     Optional<Slot> findByDoctorIdAndSlotDateAndStartTimeAndEndTime(
             Long doctorId, LocalDate slotDate, LocalTime startTime, LocalTime endTime
     );
+    
+    @Query("SELECT s.slotDate AS slotDate, s.startTime AS startTime, s.endTime AS endTime FROM Slot s " +
+           "WHERE s.doctorId = :doctorId AND s.slotDate >= :startDate AND s.slotDate <= :endDate")
+    List<SlotKey> findSlotKeys(
+            @Param("doctorId") Long doctorId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+    
+    /**
+     * Moves a slot from one status to another in a single conditional statement.
+     * Concurrent callers racing for the same slot are serialized by the row lock
+     * and only the first one sees an affected row.
+     * @return 1 when the slot was in {@code from} and is now in {@code to}, otherwise 0
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Slot s SET s.status = :to, s.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE s.id = :slotId AND s.status = :from")
+    int transitionStatus(
+            @Param("slotId") Long slotId,
+            @Param("from") SlotStatus from,
+            @Param("to") SlotStatus to
+    );
+    
+    /**
+     * Slots of a day that can be offered: available, or held with an expired hold
+     */
+    @Query("SELECT s FROM Slot s WHERE s.doctorId = :doctorId AND s.slotDate = :date " +
+           "AND (s.status = :available OR (s.status = :held AND s.heldUntil <= :now)) ORDER BY s.startTime")
+    List<Slot> findUnheldSlots(
+            @Param("doctorId") Long doctorId,
+            @Param("date") LocalDate date,
+            @Param("now") LocalDateTime now,
+            @Param("available") SlotStatus available,
+            @Param("held") SlotStatus held
+    );
+    
+    /**
+     * Holds a slot that is available or whose hold has expired
+     * @return 1 when the hold was placed
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE slots SET status = 'HELD', hold_token = :token, held_by = :patientId, " +
+                   "held_until = :until, updated_at = now() " +
+                   "WHERE id = :slotId AND (status = 'AVAILABLE' OR (status = 'HELD' AND held_until <= :now))",
+           nativeQuery = true)
+    int placeHold(
+            @Param("slotId") Long slotId,
+            @Param("token") String token,
+            @Param("patientId") Long patientId,
+            @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until
+    );
+    
+    /**
+     * Pushes out the expiry of a live hold owned by the patient
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE slots SET held_until = :until, updated_at = now() " +
+                   "WHERE id = :slotId AND status = 'HELD' AND held_by = :patientId AND held_until > :now",
+           nativeQuery = true)
+    int extendHold(
+            @Param("slotId") Long slotId,
+            @Param("patientId") Long patientId,
+            @Param("now") LocalDateTime now,
+            @Param("until") LocalDateTime until
+    );
+    
+    /**
+     * Frees a live hold if token and patient match
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE slots SET status = 'AVAILABLE', hold_token = NULL, held_by = NULL, held_until = NULL, " +
+                   "updated_at = now() " +
+                   "WHERE id = :slotId AND status = 'HELD' AND hold_token = :token AND held_by = :patientId " +
+                   "AND held_until > :now",
+           nativeQuery = true)
+    int consumeHold(
+            @Param("slotId") Long slotId,
+            @Param("token") String token,
+            @Param("patientId") Long patientId,
+            @Param("now") LocalDateTime now
+    );
+    
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE slots SET status = 'AVAILABLE', hold_token = NULL, held_by = NULL, held_until = NULL, " +
+                   "updated_at = now() " +
+                   "WHERE id = :slotId AND status = 'HELD' AND hold_token = :token",
+           nativeQuery = true)
+    int releaseHold(@Param("slotId") Long slotId, @Param("token") String token);
+    
+    @Query(value = "SELECT id FROM slots WHERE id IN (:slotIds) AND status = 'HELD' AND held_until > :now",
+           nativeQuery = true)
+    List<Long> findHeldSlotIds(@Param("slotIds") Collection<Long> slotIds, @Param("now") LocalDateTime now);
+    
+    /**
+     * Resets up to {@code limit} holds expired by {@code now} to AVAILABLE, oldest first.
+     * Takes the application clock like the other hold queries, so a hold is never swept
+     * while the backend still treats it as live
+     * @return Number of slots released
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE slots SET status = 'AVAILABLE', hold_token = NULL, held_by = NULL, held_until = NULL, " +
+                   "updated_at = now() " +
+                   "WHERE id IN (SELECT id FROM slots WHERE status = 'HELD' AND held_until <= :now " +
+                   "ORDER BY held_until LIMIT :limit FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int releaseExpiredHolds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    /**
+     * Natural key of a slot, used to diff planned slots against existing rows
+     */
+    interface SlotKey {
+        LocalDate getSlotDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+    }
 }
 
@@ -0,0 +1,249 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.model.Availability;
+import com.appointment.booking.model.AvailabilityException;
+import com.appointment.booking.model.Booking.BookingStatus;
+import com.appointment.booking.model.Slot;
+import com.appointment.booking.model.Slot.SlotStatus;
+import com.appointment.booking.repository.AvailabilityExceptionRepository;
+import com.appointment.booking.repository.AvailabilityRepository;
+import com.appointment.booking.repository.BookingRepository;
+import com.appointment.booking.repository.BookingRepository.BookingInterval;
+import com.appointment.booking.service.SlotPlanner.WorkingWindow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Computes free slots from the weekly availability, the exceptions and the blocking
+ * bookings of a doctor, without reading the slots table.
+ * <p>
+ * Every day is handled as packed int arrays of minutes-of-day pairs
+ * ({@code [start0, end0, start1, end1, ...]}): busy time is merged from bookings,
+ * subtracted from each working window and the slot grid is cut from what is left.
+ * A range query costs three indexed queries regardless of its length.
+ * Returned slots are virtual (no id) and do not reflect Redis holds.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilityEngine {
+
+    static final List<BookingStatus> BLOCKING_BOOKING_STATUSES =
+            List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.ACCEPTED);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int SEARCH_BLOCK_DAYS = 14;
+    private static final int[] NONE = new int[0];
+
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityExceptionRepository exceptionRepository;
+    private final BookingRepository bookingRepository;
+    private final SlotPlanner slotPlanner;
+
+    @Value("${slot.availability.max-search-days:60}")
+    private int maxSearchDays;
+
+    /**
+     * Free slots for an inclusive date range
+     */
+    public List<Slot> getFreeSlots(Long doctorId, LocalDate startDate, LocalDate endDate) {
+        List<Slot> result = new ArrayList<>();
+        collect(doctorId, startDate, endDate, null, Integer.MAX_VALUE, result);
+        return result;
+    }
+
+    /**
+     * The next free slots starting after the given moment, searched up to the configured number of days ahead
+     */
+    public List<Slot> getNextFreeSlots(Long doctorId, LocalDateTime from, int count) {
+        return getNextFreeSlots(doctorId, from, count, maxSearchDays);
+    }
+
+    /**
+     * The next free slots starting after the given moment, searched up to {@code searchDays} ahead
+     */
+    public List<Slot> getNextFreeSlots(Long doctorId, LocalDateTime from, int count, int searchDays) {
+        List<Slot> result = new ArrayList<>();
+        LocalDate lastDate = from.toLocalDate().plusDays(searchDays);
+        for (LocalDate blockStart = from.toLocalDate();
+             !blockStart.isAfter(lastDate) && result.size() < count;
+             blockStart = blockStart.plusDays(SEARCH_BLOCK_DAYS)) {
+            LocalDate blockEnd = blockStart.plusDays(SEARCH_BLOCK_DAYS - 1);
+            if (blockEnd.isAfter(lastDate)) {
+                blockEnd = lastDate;
+            }
+            collect(doctorId, blockStart, blockEnd, from, count, result);
+        }
+        return result;
+    }
+
+    private void collect(Long doctorId, LocalDate startDate, LocalDate endDate, LocalDateTime notBefore,
+                         int limit, List<Slot> result) {
+        List<Availability> weekly = availabilityRepository.findByDoctorId(doctorId);
+        Map<LocalDate, AvailabilityException> exceptions = exceptionRepository
+                .findByDoctorIdAndExceptionDateBetween(doctorId, startDate, endDate)
+                .stream()
+                .collect(Collectors.toMap(AvailabilityException::getExceptionDate, Function.identity(), (a, b) -> a));
+        Map<LocalDate, int[]> busyByDate = busyIntervals(bookingRepository.findBlockingBookingsBetween(
+                doctorId, startDate, endDate, BLOCKING_BOOKING_STATUSES));
+        result.addAll(computeFreeSlots(doctorId, startDate, endDate, notBefore, limit - result.size(),
+                weekly, exceptions, busyByDate));
+    }
+
+    /**
+     * Computes free slots from rows the caller has already loaded (used by bulk builders)
+     * @param notBefore Slots starting before this moment are skipped, or null
+     * @param exceptions Exceptions of the doctor keyed by date
+     * @param busyByDate Merged busy intervals of the doctor keyed by date, see {@link #busyIntervals}
+     */
+    List<Slot> computeFreeSlots(Long doctorId, LocalDate startDate, LocalDate endDate, LocalDateTime notBefore, int limit,
+                                List<Availability> weekly, Map<LocalDate, AvailabilityException> exceptions,
+                                Map<LocalDate, int[]> busyByDate) {
+        List<Slot> result = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate) && result.size() < limit; date = date.plusDays(1)) {
+            int notBeforeMinute = 0;
+            if (notBefore != null) {
+                if (date.isBefore(notBefore.toLocalDate())) {
+                    continue;
+                }
+                if (date.equals(notBefore.toLocalDate())) {
+                    notBeforeMinute = minuteOf(notBefore.toLocalTime());
+                }
+            }
+            List<WorkingWindow> windows = slotPlanner.resolveWindows(date, weekly, exceptions.get(date));
+            int[] slots = freeSlotGrid(windows, busyByDate.getOrDefault(date, NONE), notBeforeMinute);
+            for (int i = 0; i < slots.length && result.size() < limit; i += 2) {
+                result.add(Slot.builder()
+                        .doctorId(doctorId)
+                        .slotDate(date)
+                        .startTime(LocalTime.ofSecondOfDay(slots[i] * 60L))
+                        .endTime(LocalTime.ofSecondOfDay(slots[i + 1] * 60L))
+                        .status(SlotStatus.AVAILABLE)
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups bookings by date into sorted, merged busy intervals
+     */
+    static Map<LocalDate, int[]> busyIntervals(List<? extends BookingInterval> bookings) {
+        Map<LocalDate, List<int[]>> byDate = new HashMap<>();
+        for (BookingInterval booking : bookings) {
+            int start = minuteOf(booking.getStartTime());
+            int end = minuteOf(booking.getEndTime());
+            if (end <= start) {
+                // Ends at midnight
+                end = MINUTES_PER_DAY;
+            }
+            byDate.computeIfAbsent(booking.getBookingDate(), d -> new ArrayList<>()).add(new int[]{start, end});
+        }
+
+        Map<LocalDate, int[]> merged = new HashMap<>();
+        byDate.forEach((date, intervals) -> {
+            intervals.sort(Comparator.comparingInt(interval -> interval[0]));
+            int[] packed = new int[intervals.size() * 2];
+            int n = 0;
+            for (int[] interval : intervals) {
+                if (n > 0 && interval[0] <= packed[n - 1]) {
+                    packed[n - 1] = Math.max(packed[n - 1], interval[1]);
+                } else {
+                    packed[n++] = interval[0];
+                    packed[n++] = interval[1];
+                }
+            }
+            merged.put(date, Arrays.copyOf(packed, n));
+        });
+        return merged;
+    }
+
+    /**
+     * Cuts the slot grid of each window out of its free time
+     * @param busy Sorted, merged busy intervals
+     * @param notBeforeMinute Slots starting before this minute are skipped
+     * @return Packed {@code [start, end]} minute pairs of the free slots, ordered by start
+     */
+    static int[] freeSlotGrid(List<WorkingWindow> windows, int[] busy, int notBeforeMinute) {
+        long[] found = new long[32];
+        int count = 0;
+        for (WorkingWindow window : windows) {
+            int duration = window.slotDurationMinutes();
+            if (duration <= 0) {
+                continue;
+            }
+            int windowStart = minuteOf(window.startTime());
+            int windowEnd = minuteOf(window.endTime());
+            int[] free = subtract(windowStart, windowEnd, busy);
+            int piece = 0;
+            // Grid positions stay aligned to the window start, like the materialized slots
+            for (int start = windowStart; start + duration <= windowEnd; start += duration) {
+                int end = start + duration;
+                while (piece < free.length && free[piece + 1] < end) {
+                    piece += 2;
+                }
+                if (piece >= free.length) {
+                    break;
+                }
+                if (free[piece] <= start && start >= notBeforeMinute) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = ((long) start << 32) | end;
+                }
+            }
+        }
+
+        Arrays.sort(found, 0, count);
+        int[] slots = new int[count * 2];
+        for (int i = 0; i < count; i++) {
+            slots[2 * i] = (int) (found[i] >>> 32);
+            slots[2 * i + 1] = (int) found[i];
+        }
+        return slots;
+    }
+
+    /**
+     * Removes the busy intervals from {@code [start, end)}
+     * @return Packed free intervals
+     */
+    static int[] subtract(int start, int end, int[] busy) {
+        int[] free = new int[busy.length + 2];
+        int n = 0;
+        int cursor = start;
+        for (int i = 0; i < busy.length && cursor < end; i += 2) {
+            if (busy[i + 1] <= cursor) {
+                continue;
+            }
+            if (busy[i] >= end) {
+                break;
+            }
+            if (busy[i] > cursor) {
+                free[n++] = cursor;
+                free[n++] = busy[i];
+            }
+            cursor = busy[i + 1];
+        }
+        if (cursor < end) {
+            free[n++] = cursor;
+            free[n++] = end;
+        }
+        return Arrays.copyOf(free, n);
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+}
@@ -1,35 +1,52 @@
 package com.appointment.booking.service;
 
+import com.appointment.booking.event.BookingChangedEvent;
+import com.appointment.booking.event.DoctorAvailabilityChangedEvent;
 import com.appointment.booking.model.Booking;
 import com.appointment.booking.model.Booking.BookingStatus;
 import com.appointment.booking.model.Slot;
 import com.appointment.booking.repository.BookingRepository;
-import com.appointment.payment.dto.PaymentLinkRequest;
-import com.appointment.payment.service.PaymentService;
-import com.appointment.auth.repository.UserRepository;
+import com.appointment.booking.repository.BookingRepository.DoctorBookingRow;
+import com.appointment.booking.repository.BookingRepository.PatientBookingRow;
+import com.appointment.booking.repository.BookingRepository.PatientVisitRow;
+import com.appointment.booking.dto.BookingCursor;
+import com.appointment.booking.dto.BookingResponse;
+import com.appointment.booking.dto.CursorPage;
 import com.appointment.booking.dto.PatientBookingDTO;
+import com.appointment.booking.dto.PatientVisitDTO;
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.common.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingService {
+
+    public static final int DEFAULT_LIST_PAGE_SIZE = 50;
+    public static final int MAX_LIST_PAGE_SIZE = 200;
     
     private final BookingRepository bookingRepository;
     private final SlotService slotService;
     private final SlotHoldService slotHoldService;
-    private final PaymentService paymentService;
-    private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final BookingViewAssembler viewAssembler;
+    private final ApplicationEventPublisher eventPublisher;
     
     public BookingRepository getBookingRepository() {
         return bookingRepository;
@@ -38,7 +55,7 @@ public class BookingService {
     @Transactional
     public Booking createBookingWithHold(Long doctorId, Long patientId, Long slotId, String holdToken) {
         if (!slotHoldService.validateAndConsumeHold(slotId, holdToken, patientId)) {
-            throw new IllegalStateException("Invalid or expired hold token");
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Invalid or expired hold token");
         }
         Slot slot = slotService.bookSlot(slotId);
         String bookingNumber = generateBookingNumber();
@@ -56,6 +73,9 @@ public class BookingService {
                 .build();
         
         booking = bookingRepository.save(booking);
+        outboxService.append(OutboxEventType.BOOKING_CREATED, booking.getId());
+        eventPublisher.publishEvent(new DoctorAvailabilityChangedEvent(doctorId));
+        publishChanged(booking);
         log.info("Booking created: {} for patient {} with doctor {}", bookingNumber, patientId, doctorId);
         return booking;
     }
@@ -73,10 +93,9 @@ public class BookingService {
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setConfirmedAt(LocalDateTime.now());
         booking = bookingRepository.save(booking);
-        
-        if (Boolean.TRUE.equals(booking.getRequiresPayment())) {
-            generatePaymentLink(booking);
-        }
+        // Payment link and patient notification are sent by the outbox relay after commit
+        outboxService.append(OutboxEventType.BOOKING_CONFIRMED, booking.getId());
+        publishChanged(booking);
         return booking;
     }
     
@@ -89,7 +108,12 @@ public class BookingService {
         if (booking.getSlotId() != null) {
             slotService.releaseSlot(booking.getSlotId());
         }
-        return bookingRepository.save(booking);
+        booking = bookingRepository.save(booking);
+        outboxService.append(OutboxEventType.BOOKING_CANCELLED, booking.getId(),
+                reason != null ? Map.of("reason", reason) : Map.of());
+        eventPublisher.publishEvent(new DoctorAvailabilityChangedEvent(booking.getDoctorId()));
+        publishChanged(booking);
+        return booking;
     }
     
     @Transactional
@@ -103,8 +127,31 @@ public class BookingService {
                 doctorId, date, List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.ACCEPTED, BookingStatus.COMPLETED, BookingStatus.PAID));
     }
     
-    public List<Booking> getPendingBookings(Long doctorId) {
-        return bookingRepository.findByDoctorIdAndStatus(doctorId, BookingStatus.PENDING);
+    /**
+     * A doctor's pending bookings, earliest appointment first
+     * @param cursor Next-page cursor from the previous page, null for the first page
+     */
+    public CursorPage<BookingResponse> getPendingBookings(Long doctorId, String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        BookingCursor after = BookingCursor.decode(cursor, BookingCursor.FIRST);
+        List<DoctorBookingRow> rows = bookingRepository.findDoctorBookingsAfter(doctorId, BookingStatus.PENDING,
+                after.bookingDate(), after.startTime(), after.id(), PageRequest.of(0, pageSize + 1));
+        return page(rows, pageSize,
+                r -> new BookingCursor(r.getBookingDate(), r.getStartTime(), r.getId()),
+                viewAssembler::toBookingResponses);
+    }
+
+    /**
+     * Visit history for a patient phone number, most recent first
+     */
+    public CursorPage<PatientVisitDTO> getPatientVisits(String phone, String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        BookingCursor before = BookingCursor.decode(cursor, BookingCursor.LAST);
+        List<PatientVisitRow> rows = bookingRepository.findVisitsByPhoneBefore(phone,
+                before.bookingDate(), before.startTime(), before.id(), PageRequest.of(0, pageSize + 1));
+        return page(rows, pageSize,
+                r -> new BookingCursor(r.getBookingDate(), r.getStartTime(), r.getId()),
+                viewAssembler::toPatientVisits);
     }
     
     public Optional<Booking> getBooking(Long bookingId) {
@@ -121,22 +168,6 @@ public class BookingService {
         return "BK-" + timestamp + "-" + uniqueId;
     }
     
-    private void generatePaymentLink(Booking booking) {
-        try {
-            PaymentLinkRequest request = PaymentLinkRequest.builder()
-                    .bookingId(booking.getId())
-                    .patientId(booking.getPatientId())
-                    .amount(java.math.BigDecimal.valueOf(500.00))
-                    .currency("INR")
-                    .description("Consultation fee for booking " + booking.getBookingNumber())
-                    // TODO: fetch customer details
-                    .build();
-            paymentService.createPaymentLink(request);
-        } catch (Exception e) {
-            log.error("Error generating payment link", e);
-        }
-    }
-    
     @Transactional
     public Booking completeAppointment(Long bookingId, String notes) {
         Booking booking = bookingRepository.findById(bookingId)
@@ -144,28 +175,48 @@ public class BookingService {
         booking.setStatus(BookingStatus.COMPLETED);
         booking.setCompletedAt(LocalDateTime.now());
         booking.setDoctorNotes(notes);
-        return bookingRepository.save(booking);
+        booking = bookingRepository.save(booking);
+        outboxService.append(OutboxEventType.BOOKING_COMPLETED, booking.getId());
+        eventPublisher.publishEvent(new DoctorAvailabilityChangedEvent(booking.getDoctorId()));
+        publishChanged(booking);
+        return booking;
+    }
+
+    /**
+     * A patient's bookings, most recent first
+     */
+    public CursorPage<PatientBookingDTO> getPatientBookingsDTO(Long patientId, String cursor, Integer size) {
+        int pageSize = pageSize(size);
+        BookingCursor before = BookingCursor.decode(cursor, BookingCursor.LAST);
+        List<PatientBookingRow> rows = bookingRepository.findPatientBookingsBefore(patientId,
+                before.bookingDate(), before.startTime(), before.id(), PageRequest.of(0, pageSize + 1));
+        return page(rows, pageSize,
+                r -> new BookingCursor(r.getBookingDate(), r.getStartTime(), r.getId()),
+                viewAssembler::toPatientBookings);
+    }
+
+    private void publishChanged(Booking booking) {
+        eventPublisher.publishEvent(new BookingChangedEvent(booking.getDoctorId(), booking.getId(),
+                booking.getBookingDate(), booking.getStartTime(), booking.getStatus()));
+    }
+
+    private static int pageSize(Integer size) {
+        int pageSize = size != null ? size : DEFAULT_LIST_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_LIST_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + MAX_LIST_PAGE_SIZE);
+        }
+        return pageSize;
     }
 
-    public List<PatientBookingDTO> getPatientBookingsDTO(Long patientId) {
-        List<Booking> bookings = bookingRepository.findByPatientId(patientId);
-        return bookings.stream().map(b -> {
-             String doctorName = "Unknown";
-             if(b.getDoctorId() != null) {
-                 doctorName = userRepository.findById(b.getDoctorId())
-                         .map(u -> u.getName() != null ? u.getName() : u.getUsername())
-                         .orElse("Unknown");
-             }
-             return PatientBookingDTO.builder()
-                 .id(b.getId())
-                 .doctorId(b.getDoctorId())
-                 .doctorName(doctorName)
-                 .bookingDate(b.getBookingDate())
-                 .startTime(b.getStartTime() != null ? b.getStartTime().toString() : null)
-                 .status(b.getStatus().name())
-                 .paymentLink(b.getPaymentLinkUrl())
-                 .totalAmount(b.getTotalAmount())
-                 .build();
-        }).collect(Collectors.toList());
+    /**
+     * Assembles up to {@code pageSize} rows; one extra row fetched by the query means there is a next page
+     */
+    private static <R, T> CursorPage<T> page(List<R> rows, int pageSize,
+                                             Function<R, BookingCursor> position, Function<List<R>, List<T>> assembler) {
+        boolean hasMore = rows.size() > pageSize;
+        List<R> content = hasMore ? rows.subList(0, pageSize) : rows;
+        String next = hasMore ? position.apply(content.get(pageSize - 1)).encode() : null;
+        return new CursorPage<>(assembler.apply(content), next);
     }
 }
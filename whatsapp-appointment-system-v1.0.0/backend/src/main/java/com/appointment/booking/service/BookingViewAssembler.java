@@ -0,0 +1,97 @@
+package com.appointment.booking.service;
+
+import com.appointment.auth.model.User;
+import com.appointment.auth.repository.UserRepository;
+import com.appointment.booking.dto.BookingResponse;
+import com.appointment.booking.dto.PatientBookingDTO;
+import com.appointment.booking.dto.PatientVisitDTO;
+import com.appointment.booking.repository.BookingRepository.DoctorBookingRow;
+import com.appointment.booking.repository.BookingRepository.PatientBookingRow;
+import com.appointment.booking.repository.BookingRepository.PatientVisitRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Turns booking projections into the views returned by the listing endpoints.
+ * <p>
+ * Names of the doctors referenced by a page are resolved with a single bulk
+ * lookup, so assembling a page costs one query regardless of its size.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingViewAssembler {
+
+    private static final String UNKNOWN_DOCTOR = "Unknown";
+
+    private final UserRepository userRepository;
+
+    public List<PatientBookingDTO> toPatientBookings(List<PatientBookingRow> rows) {
+        Map<Long, String> doctorNames = doctorNames(rows.stream().map(PatientBookingRow::getDoctorId).toList());
+        return rows.stream()
+                .map(r -> PatientBookingDTO.builder()
+                        .id(r.getId())
+                        .doctorId(r.getDoctorId())
+                        .doctorName(doctorNames.getOrDefault(r.getDoctorId(), UNKNOWN_DOCTOR))
+                        .bookingDate(r.getBookingDate())
+                        .startTime(r.getStartTime().toString())
+                        .status(r.getStatus().name())
+                        .paymentLink(r.getPaymentLinkUrl())
+                        .totalAmount(r.getTotalAmount())
+                        .build())
+                .toList();
+    }
+
+    public List<PatientVisitDTO> toPatientVisits(List<PatientVisitRow> rows) {
+        Map<Long, String> doctorNames = doctorNames(rows.stream().map(PatientVisitRow::getDoctorId).toList());
+        return rows.stream()
+                .map(r -> PatientVisitDTO.builder()
+                        .id(r.getId())
+                        .doctorId(r.getDoctorId())
+                        .doctorName(doctorNames.getOrDefault(r.getDoctorId(), UNKNOWN_DOCTOR))
+                        .bookingDate(r.getBookingDate())
+                        .startTime(r.getStartTime())
+                        .status(r.getStatus().name())
+                        .diseaseDescription(r.getDiseaseDescription())
+                        .doctorNotes(r.getDoctorNotes())
+                        .build())
+                .toList();
+    }
+
+    public List<BookingResponse> toBookingResponses(List<DoctorBookingRow> rows) {
+        return rows.stream()
+                .map(r -> BookingResponse.builder()
+                        .id(r.getId())
+                        .bookingNumber(r.getBookingNumber())
+                        .doctorId(r.getDoctorId())
+                        .patientId(r.getPatientId())
+                        .slotId(r.getSlotId())
+                        .bookingDate(r.getBookingDate())
+                        .startTime(r.getStartTime())
+                        .endTime(r.getEndTime())
+                        .status(r.getStatus().name())
+                        .notes(r.getNotes())
+                        .createdAt(r.getCreatedAt())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Display names of the given doctors, loaded with one query; unknown ids are absent
+     */
+    public Map<Long, String> doctorNames(Collection<Long> doctorIds) {
+        List<Long> ids = doctorIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId,
+                        u -> u.getName() != null ? u.getName() : u.getUsername(),
+                        (a, b) -> a));
+    }
+}
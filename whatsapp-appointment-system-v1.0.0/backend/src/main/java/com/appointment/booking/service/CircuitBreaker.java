@@ -0,0 +1,85 @@
+package com.appointment.booking.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ * <p>
+ * CLOSED lets every call through. After {@code failureThreshold} failures in a row it
+ * turns OPEN and rejects calls for {@code openDurationNanos}; then a single trial call
+ * is let through (HALF_OPEN) and its outcome closes or re-opens the circuit.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, long openDurationNanos, LongSupplier clock) {
+        if (failureThreshold < 1 || openDurationNanos <= 0) {
+            throw new IllegalArgumentException("Threshold and open duration must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if the call may proceed; the caller must then report its outcome
+     */
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if this success closed an open circuit
+     */
+    synchronized boolean onSuccess() {
+        boolean recovered = state != State.CLOSED;
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        return recovered;
+    }
+
+    /**
+     * @return true if this failure opened the circuit
+     */
+    synchronized boolean onFailure() {
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,140 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.event.BookingChangedEvent;
+import com.appointment.booking.event.DailyMetricsChangedEvent;
+import com.appointment.booking.event.PendingRequestChangedEvent;
+import com.appointment.booking.model.Booking.BookingStatus;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository.DailyMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Pushes dashboard changes to doctors over STOMP.
+ * <p>
+ * Changes are collected per doctor after the originating transaction commits and
+ * flushed on a fixed interval, so a burst of changes becomes at most one message per
+ * topic and interval. Only the latest state of each booking, request or day is sent:
+ * <ul>
+ *   <li>{@code /topic/doctor/{id}/bookings}: changed bookings with their status</li>
+ *   <li>{@code /topic/doctor/{id}/pending-requests}: created or resolved requests</li>
+ *   <li>{@code /topic/doctor/{id}/metrics}: recomputed daily rollup rows</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardPushService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, DoctorUpdates> pending = new ConcurrentHashMap<>();
+
+    private Counter changesCounter;
+    private Counter messagesCounter;
+
+    public record BookingDelta(Long bookingId, LocalDate bookingDate, LocalTime startTime, BookingStatus status) {}
+
+    public record RequestDelta(Long requestId, PendingRequestChangedEvent.Change change) {}
+
+    public record BookingsMessage(List<BookingDelta> bookings) {}
+
+    public record PendingRequestsMessage(List<RequestDelta> requests) {}
+
+    public record MetricsMessage(List<DailyMetrics> days) {}
+
+    /**
+     * Changes for one doctor since the last flush, keyed so later changes replace earlier ones.
+     * Only mutated inside {@link ConcurrentHashMap#compute}, and no longer reachable once removed
+     */
+    private static final class DoctorUpdates {
+        private final Map<Long, BookingDelta> bookings = new LinkedHashMap<>();
+        private final Map<Long, RequestDelta> requests = new LinkedHashMap<>();
+        private final Map<LocalDate, DailyMetrics> metrics = new LinkedHashMap<>();
+    }
+
+    @PostConstruct
+    void init() {
+        changesCounter = meterRegistry.counter("dashboard.push.changes");
+        messagesCounter = meterRegistry.counter("dashboard.push.messages");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.doctorId() == null) {
+            return;
+        }
+        record(event.doctorId(), updates -> updates.bookings.put(event.bookingId(),
+                new BookingDelta(event.bookingId(), event.bookingDate(), event.startTime(), event.status())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPendingRequestChanged(PendingRequestChangedEvent event) {
+        record(event.doctorId(), updates -> updates.requests.put(event.requestId(),
+                new RequestDelta(event.requestId(), event.change())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDailyMetricsChanged(DailyMetricsChangedEvent event) {
+        DailyMetrics metrics = event.metrics();
+        record(metrics.doctorId(), updates -> updates.metrics.put(metrics.date(), metrics));
+    }
+
+    private void record(Long doctorId, Consumer<DoctorUpdates> change) {
+        changesCounter.increment();
+        pending.compute(doctorId, (id, updates) -> {
+            DoctorUpdates current = updates != null ? updates : new DoctorUpdates();
+            change.accept(current);
+            return current;
+        });
+    }
+
+    /**
+     * Sends everything collected since the previous flush
+     */
+    @Scheduled(fixedDelayString = "${dashboard.push.interval-ms:1000}")
+    public void flush() {
+        for (Long doctorId : new ArrayList<>(pending.keySet())) {
+            DoctorUpdates updates = pending.remove(doctorId);
+            if (updates == null) {
+                continue;
+            }
+            try {
+                String topic = "/topic/doctor/" + doctorId;
+                if (!updates.bookings.isEmpty()) {
+                    send(topic + "/bookings", new BookingsMessage(List.copyOf(updates.bookings.values())));
+                }
+                if (!updates.requests.isEmpty()) {
+                    send(topic + "/pending-requests", new PendingRequestsMessage(List.copyOf(updates.requests.values())));
+                }
+                if (!updates.metrics.isEmpty()) {
+                    send(topic + "/metrics", new MetricsMessage(List.copyOf(updates.metrics.values())));
+                }
+            } catch (Exception e) {
+                // Not retried: the next change or a page reload brings the dashboard up to date
+                log.warn("Dashboard push for doctor {} failed: {}", doctorId, e.getMessage());
+            }
+        }
+    }
+
+    private void send(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        messagesCounter.increment();
+    }
+}
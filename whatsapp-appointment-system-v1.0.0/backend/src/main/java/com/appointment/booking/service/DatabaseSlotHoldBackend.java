@@ -0,0 +1,98 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.model.Slot;
+import com.appointment.booking.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Slot holds stored on the slot rows (slot.hold.backend=database).
+ * <p>
+ * A hold moves the slot to HELD with a token, the patient and {@code held_until}, all in
+ * one conditional UPDATE, so there is no Redis dependency and availability queries can
+ * exclude held slots in SQL. An expired hold counts as free immediately; the sweeper
+ * only resets such rows to AVAILABLE in batches to keep the partial index small.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "slot.hold.backend", havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseSlotHoldBackend implements SlotHoldBackend {
+
+    private final SlotRepository slotRepository;
+
+    @Value("${slot.hold.sweep.batch-size:500}")
+    private int sweepBatchSize;
+
+    @Override
+    @Transactional
+    public String createHold(Long slotId, Long patientId, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(duration);
+        if (slotRepository.extendHold(slotId, patientId, now, until) > 0) {
+            return slotRepository.findById(slotId).map(Slot::getHoldToken).orElse(null);
+        }
+        String holdToken = UUID.randomUUID().toString();
+        return slotRepository.placeHold(slotId, holdToken, patientId, now, until) > 0 ? holdToken : null;
+    }
+
+    @Override
+    @Transactional
+    public boolean consumeHold(Long slotId, String holdToken, Long patientId) {
+        return slotRepository.consumeHold(slotId, holdToken, patientId, LocalDateTime.now()) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean releaseHold(Long slotId, String holdToken) {
+        return slotRepository.releaseHold(slotId, holdToken) > 0;
+    }
+
+    @Override
+    public Set<Long> findHeldSlotIds(Collection<Long> slotIds) {
+        return new HashSet<>(slotRepository.findHeldSlotIds(slotIds, LocalDateTime.now()));
+    }
+
+    @Override
+    public Optional<String> findHoldToken(Long slotId) {
+        return slotRepository.findById(slotId)
+                .filter(slot -> slot.getStatus() == Slot.SlotStatus.HELD
+                        && slot.getHeldUntil() != null && slot.getHeldUntil().isAfter(LocalDateTime.now()))
+                .map(Slot::getHoldToken);
+    }
+
+    @Override
+    public boolean holdsInSlotTable() {
+        return true;
+    }
+
+    /**
+     * Resets expired holds to AVAILABLE, one batch per statement
+     */
+    @Scheduled(fixedDelayString = "${slot.hold.sweep.interval-ms:30000}")
+    public void sweepExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int released;
+        int total = 0;
+        do {
+            released = slotRepository.releaseExpiredHolds(now, sweepBatchSize);
+            total += released;
+        } while (released == sweepBatchSize);
+        if (total > 0) {
+            log.info("Released {} expired slot holds", total);
+        }
+    }
+}
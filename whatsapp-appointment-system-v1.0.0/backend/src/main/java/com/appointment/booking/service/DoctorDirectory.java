@@ -0,0 +1,198 @@
+package com.appointment.booking.service;
+
+import com.appointment.auth.model.User;
+import com.appointment.auth.repository.UserRepository;
+import com.appointment.booking.dto.DoctorLookupResponse.DoctorInfo;
+import com.appointment.booking.event.DoctorProfileChangedEvent;
+import com.appointment.booking.model.Specialization;
+import com.appointment.booking.repository.SpecializationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only view of the doctor catalogue used by the patient facing listing endpoints.
+ * <p>
+ * The directory is an immutable snapshot (doctors, specializations, indexes by
+ * specialization and qualification, and a content ETag) swapped atomically.
+ * It is built from two queries, patched copy-on-write when a doctor changes and
+ * rebuilt periodically to pick up rows edited outside the application.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoctorDirectory {
+
+    private final UserRepository userRepository;
+    private final SpecializationRepository specializationRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * A listed doctor with the raw fields used for filtering
+     */
+    public record DoctorEntry(DoctorInfo info, Long specializationId, String qualification, boolean active) {}
+
+    /**
+     * Immutable directory state
+     */
+    public record Snapshot(List<DoctorEntry> doctors,
+                           Map<Long, DoctorEntry> byId,
+                           Map<Long, List<DoctorEntry>> bySpecialization,
+                           Map<String, List<DoctorEntry>> byQualification,
+                           List<Specialization> specializations,
+                           List<String> qualifications,
+                           String etag) {
+
+        /**
+         * Doctors matching both filters (null means no filter), in name order
+         */
+        public List<DoctorEntry> find(Long specializationId, String qualification) {
+            if (specializationId == null && qualification == null) {
+                return doctors;
+            }
+            if (specializationId == null) {
+                return byQualification.getOrDefault(qualification.toLowerCase(Locale.ROOT), List.of());
+            }
+            List<DoctorEntry> bySpec = bySpecialization.getOrDefault(specializationId, List.of());
+            if (qualification == null) {
+                return bySpec;
+            }
+            return bySpec.stream()
+                    .filter(d -> qualification.equalsIgnoreCase(d.qualification()))
+                    .toList();
+        }
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    public Optional<DoctorEntry> find(Long doctorId) {
+        return Optional.ofNullable(snapshot().byId().get(doctorId));
+    }
+
+    /**
+     * Reloads doctors and specializations
+     */
+    @Scheduled(initialDelayString = "${doctor.directory.refresh-interval-ms:300000}",
+               fixedDelayString = "${doctor.directory.refresh-interval-ms:300000}")
+    public synchronized void rebuild() {
+        Map<Long, String> specializationNames = new LinkedHashMap<>();
+        List<Specialization> specializations = specializationRepository.findAll();
+        specializations.forEach(s -> specializationNames.put(s.getId(), s.getName()));
+
+        List<DoctorEntry> doctors = userRepository.findByRole(User.UserRole.DOCTOR).stream()
+                .map(doctor -> toEntry(doctor, specializationNames))
+                .toList();
+        snapshot = build(doctors, specializations);
+        log.info("Doctor directory loaded: {} doctors, {} specializations", doctors.size(), specializations.size());
+    }
+
+    /**
+     * Replaces a single doctor without reloading the whole catalogue
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onDoctorProfileChanged(DoctorProfileChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Map<Long, String> specializationNames = current.specializations().stream()
+                .collect(Collectors.toMap(Specialization::getId, Specialization::getName));
+        List<DoctorEntry> doctors = new ArrayList<>(current.doctors());
+        doctors.removeIf(d -> d.info().getId().equals(event.doctorId()));
+        userRepository.findById(event.doctorId())
+                .filter(u -> u.getRole() == User.UserRole.DOCTOR)
+                .ifPresent(u -> doctors.add(toEntry(u, specializationNames)));
+        snapshot = build(doctors, current.specializations());
+    }
+
+    private static Snapshot build(List<DoctorEntry> entries, List<Specialization> specializations) {
+        List<DoctorEntry> doctors = entries.stream()
+                .sorted(Comparator.comparing((DoctorEntry d) -> d.info().getName(),
+                                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                        .thenComparing(d -> d.info().getId()))
+                .toList();
+        Map<Long, DoctorEntry> byId = doctors.stream()
+                .collect(Collectors.toUnmodifiableMap(d -> d.info().getId(), Function.identity()));
+        Map<Long, List<DoctorEntry>> bySpecialization = doctors.stream()
+                .filter(d -> d.specializationId() != null)
+                .collect(Collectors.collectingAndThen(
+                        Collectors.groupingBy(DoctorEntry::specializationId, Collectors.toUnmodifiableList()),
+                        Collections::unmodifiableMap));
+        Map<String, List<DoctorEntry>> byQualification = doctors.stream()
+                .filter(d -> d.qualification() != null && !d.qualification().isEmpty())
+                .collect(Collectors.collectingAndThen(
+                        Collectors.groupingBy(d -> d.qualification().toLowerCase(Locale.ROOT), Collectors.toUnmodifiableList()),
+                        Collections::unmodifiableMap));
+        List<String> qualifications = doctors.stream()
+                .map(DoctorEntry::qualification)
+                .filter(q -> q != null && !q.isEmpty())
+                .distinct()
+                .toList();
+        return new Snapshot(doctors, byId, bySpecialization, byQualification,
+                List.copyOf(specializations), qualifications, etag(doctors, specializations));
+    }
+
+    /**
+     * Content hash, so every instance serving the same data hands out the same ETag
+     */
+    private static String etag(List<DoctorEntry> doctors, List<Specialization> specializations) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Specialization s : specializations) {
+                digest.update((s.getId() + "|" + s.getName() + "|" + s.getDescription() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            for (DoctorEntry d : doctors) {
+                DoctorInfo info = d.info();
+                digest.update((info.getId() + "|" + info.getName() + "|" + info.getPhone() + "|"
+                        + info.getSpecialization() + "|" + info.getQualification() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static DoctorEntry toEntry(User doctor, Map<Long, String> specializationNames) {
+        String specName = doctor.getSpecializationId() != null
+                ? specializationNames.getOrDefault(doctor.getSpecializationId(), "General")
+                : "General";
+        DoctorInfo info = DoctorInfo.builder()
+                .id(doctor.getId())
+                .name(doctor.getName() != null ? doctor.getName() : doctor.getUsername())
+                .phone(doctor.getPhone())
+                .specialization(specName)
+                .qualification(doctor.getQualification() != null ? doctor.getQualification() : "-")
+                .build();
+        return new DoctorEntry(info, doctor.getSpecializationId(), doctor.getQualification(),
+                Boolean.TRUE.equals(doctor.getIsActive()));
+    }
+}
@@ -0,0 +1,319 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.dto.EarliestAvailabilityResponse;
+import com.appointment.booking.event.DoctorAvailabilityChangedEvent;
+import com.appointment.booking.model.Availability;
+import com.appointment.booking.model.AvailabilityException;
+import com.appointment.booking.model.Slot;
+import com.appointment.booking.repository.AvailabilityExceptionRepository;
+import com.appointment.booking.repository.AvailabilityRepository;
+import com.appointment.booking.repository.BookingRepository;
+import com.appointment.booking.repository.BookingRepository.BookingInterval;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the next free slots of every active doctor, ordered by the
+ * earliest one, so "who can see me first" is a walk over a skip list instead of
+ * one availability query per doctor.
+ * <p>
+ * The index is rebuilt periodically from the doctor directory and three bulk queries and patched in between:
+ * booking changes mark the doctor dirty and are recomputed within a second.
+ * Indexed slots are computed, so at query time the candidates are matched to their slot
+ * rows (for ids) and checked against the shared hold backend, a batch of doctors at a time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FreeSlotIndex {
+
+    private final DoctorDirectory doctorDirectory;
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityExceptionRepository exceptionRepository;
+    private final BookingRepository bookingRepository;
+    private final SlotService slotService;
+    private final AvailabilityEngine availabilityEngine;
+    private final MeterRegistry meterRegistry;
+
+    private static final Comparator<Position> EARLIEST_FIRST =
+            Comparator.comparing(Position::earliest).thenComparing(Position::doctorId);
+
+    private static final Comparator<EarliestAvailabilityResponse> FIRST_SLOT_FIRST =
+            Comparator.comparing(FreeSlotIndex::firstSlotStart);
+
+    @Value("${slot.index.slots-per-doctor:3}")
+    private int slotsPerDoctor;
+
+    @Value("${slot.index.search-days:14}")
+    private int searchDays;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Set<Long> dirtyDoctors = ConcurrentHashMap.newKeySet();
+
+    private volatile State state = new State();
+    private volatile boolean ready;
+
+    private Timer queryTimer;
+    private Timer rebuildTimer;
+
+    /**
+     * Next free slots of one doctor together with its directory entry
+     */
+    private record DoctorEntry(DoctorDirectory.DoctorEntry doctor, List<Slot> freeSlots) {
+        Long doctorId() {
+            return doctor.info().getId();
+        }
+
+        Position position() {
+            Slot first = freeSlots.get(0);
+            return new Position(LocalDateTime.of(first.getSlotDate(), first.getStartTime()), doctorId());
+        }
+    }
+
+    private record Position(LocalDateTime earliest, Long doctorId) {}
+
+    private static final class State {
+        private final Map<Long, DoctorEntry> doctors = new ConcurrentHashMap<>();
+        private final NavigableSet<Position> byEarliest = new ConcurrentSkipListSet<>(EARLIEST_FIRST);
+    }
+
+    @PostConstruct
+    void init() {
+        queryTimer = Timer.builder("slot.index.query.duration")
+                .description("Earliest availability lookups served from the free slot index")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rebuildTimer = Timer.builder("slot.index.rebuild.duration")
+                .description("Full rebuilds of the free slot index")
+                .register(meterRegistry);
+        Gauge.builder("slot.index.doctors", this, index -> index.state.byEarliest.size())
+                .description("Doctors with at least one free slot in the index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Doctors with the earliest free slots, optionally filtered by specialization and qualification
+     * @param limit Maximum number of doctors returned
+     */
+    public List<EarliestAvailabilityResponse> findEarliest(Long specializationId, String qualification, int limit) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        State current = state;
+
+        List<EarliestAvailabilityResponse> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        Iterator<Position> positions = current.byEarliest.iterator();
+        boolean exhausted = limit <= 0;
+        while (!exhausted) {
+            List<DoctorEntry> batch = new ArrayList<>(limit);
+            List<Slot> candidates = new ArrayList<>();
+            while (batch.size() < limit) {
+                if (!positions.hasNext()) {
+                    exhausted = true;
+                    break;
+                }
+                Position position = positions.next();
+                // A position is a lower bound for the entry's first usable slot (filtering only
+                // pushes it later), so once it passes the Nth best result nothing after it can win
+                if (result.size() >= limit && position.earliest().isAfter(firstSlotStart(result.get(limit - 1)))) {
+                    exhausted = true;
+                    break;
+                }
+                DoctorEntry entry = current.doctors.get(position.doctorId());
+                // A refresh briefly indexes a doctor under both the old and the new position
+                if (entry == null || !seen.add(position.doctorId()) || !matches(entry, specializationId, qualification)) {
+                    continue;
+                }
+                List<Slot> upcoming = entry.freeSlots().stream()
+                        .filter(slot -> !LocalDateTime.of(slot.getSlotDate(), slot.getStartTime()).isBefore(now))
+                        .toList();
+                if (upcoming.size() < entry.freeSlots().size()) {
+                    // Slots elapsed since the last refresh
+                    dirtyDoctors.add(position.doctorId());
+                }
+                if (!upcoming.isEmpty()) {
+                    batch.add(entry);
+                    candidates.addAll(upcoming);
+                }
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            // One slot row query and one hold lookup per batch; drops booked and held slots
+            Map<Long, List<Slot>> freeByDoctor = slotService.attachSlotRows(candidates).stream()
+                    .collect(Collectors.groupingBy(Slot::getDoctorId));
+            for (DoctorEntry entry : batch) {
+                List<Slot> slots = freeByDoctor.get(entry.doctorId());
+                if (slots != null) {
+                    result.add(EarliestAvailabilityResponse.builder()
+                            .doctor(entry.doctor().info())
+                            .slots(slots)
+                            .build());
+                }
+            }
+            // Entries filtered above may now start later than their position in the index
+            result.sort(FIRST_SLOT_FIRST);
+            while (result.size() > limit) {
+                result.remove(result.size() - 1);
+            }
+        }
+
+        queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(DoctorAvailabilityChangedEvent event) {
+        dirtyDoctors.add(event.doctorId());
+    }
+
+    /**
+     * Recomputes doctors whose bookings changed since the last pass
+     */
+    @Scheduled(fixedDelayString = "${slot.index.refresh-interval-ms:1000}")
+    public void refreshDirtyDoctors() {
+        if (!ready || dirtyDoctors.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<Long> doctorIds = new ArrayList<>(dirtyDoctors);
+            dirtyDoctors.removeAll(doctorIds);
+            LocalDateTime now = LocalDateTime.now();
+            for (Long doctorId : doctorIds) {
+                try {
+                    refreshDoctor(doctorId, now);
+                } catch (Exception e) {
+                    log.error("Failed to refresh free slot index for doctor {}", doctorId, e);
+                    dirtyDoctors.add(doctorId);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from bulk queries; also picks up directory changes
+     * and exceptions edited outside the application
+     */
+    @Scheduled(initialDelayString = "${slot.index.initial-delay-ms:5000}",
+               fixedDelayString = "${slot.index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        writeLock.lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate from = now.toLocalDate();
+            LocalDate to = from.plusDays(searchDays);
+
+            Map<Long, List<Availability>> weeklyByDoctor = availabilityRepository.findAll().stream()
+                    .collect(Collectors.groupingBy(Availability::getDoctorId));
+            Map<Long, Map<LocalDate, AvailabilityException>> exceptionsByDoctor = exceptionRepository
+                    .findByExceptionDateBetween(from, to).stream()
+                    .collect(Collectors.groupingBy(AvailabilityException::getDoctorId,
+                            Collectors.toMap(AvailabilityException::getExceptionDate, Function.identity(), (a, b) -> a)));
+            Map<Long, List<BookingInterval>> bookingsByDoctor = bookingRepository
+                    .findAllBlockingBookingsBetween(from, to, AvailabilityEngine.BLOCKING_BOOKING_STATUSES).stream()
+                    .collect(Collectors.groupingBy(BookingInterval::getDoctorId));
+
+            State rebuilt = new State();
+            for (DoctorDirectory.DoctorEntry doctor : doctorDirectory.snapshot().doctors()) {
+                if (!doctor.active()) {
+                    continue;
+                }
+                Long doctorId = doctor.info().getId();
+                List<Slot> slots = availabilityEngine.computeFreeSlots(doctorId, from, to, now, slotsPerDoctor,
+                        weeklyByDoctor.getOrDefault(doctorId, List.of()),
+                        exceptionsByDoctor.getOrDefault(doctorId, Map.of()),
+                        AvailabilityEngine.busyIntervals(bookingsByDoctor.getOrDefault(doctorId, List.of())));
+                put(rebuilt, new DoctorEntry(doctor, slots));
+            }
+            state = rebuilt;
+            ready = true;
+            log.info("Free slot index rebuilt: {} doctors, {} with free slots",
+                    rebuilt.doctors.size(), rebuilt.byEarliest.size());
+        } catch (Exception e) {
+            log.error("Free slot index rebuild failed", e);
+        } finally {
+            writeLock.unlock();
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Computes the doctor's entry first and then swaps it in, so readers keep seeing the
+     * old entry while the query runs
+     */
+    private void refreshDoctor(Long doctorId, LocalDateTime now) {
+        DoctorEntry refreshed = doctorDirectory.find(doctorId)
+                .filter(DoctorDirectory.DoctorEntry::active)
+                .map(doctor -> new DoctorEntry(doctor,
+                        availabilityEngine.getNextFreeSlots(doctorId, now, slotsPerDoctor, searchDays)))
+                .orElse(null);
+
+        State current = state;
+        DoctorEntry existing;
+        if (refreshed != null) {
+            existing = current.doctors.put(doctorId, refreshed);
+            if (!refreshed.freeSlots().isEmpty()) {
+                current.byEarliest.add(refreshed.position());
+            }
+        } else {
+            existing = current.doctors.remove(doctorId);
+        }
+        if (existing != null && !existing.freeSlots().isEmpty()
+                && (refreshed == null || refreshed.freeSlots().isEmpty() || !existing.position().equals(refreshed.position()))) {
+            current.byEarliest.remove(existing.position());
+        }
+    }
+
+    private static void put(State target, DoctorEntry entry) {
+        target.doctors.put(entry.doctorId(), entry);
+        if (!entry.freeSlots().isEmpty()) {
+            target.byEarliest.add(entry.position());
+        }
+    }
+
+    private static LocalDateTime firstSlotStart(EarliestAvailabilityResponse response) {
+        Slot first = response.getSlots().get(0);
+        return LocalDateTime.of(first.getSlotDate(), first.getStartTime());
+    }
+
+    private static boolean matches(DoctorEntry entry, Long specializationId, String qualification) {
+        if (specializationId != null && !specializationId.equals(entry.doctor().specializationId())) {
+            return false;
+        }
+        return qualification == null || qualification.equalsIgnoreCase(entry.doctor().qualification());
+    }
+}
@@ -0,0 +1,72 @@
+package com.appointment.booking.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process cache of "is this slot held" answers.
+ * Entries live for at most the staleness bound; invalidation from keyspace
+ * notifications normally removes them much earlier.
+ */
+final class HoldNearCache {
+
+    private record Entry(boolean held, long expiresAtNanos) {}
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    HoldNearCache(long ttlNanos, int maxEntries, LongSupplier clock) {
+        if (ttlNanos <= 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("TTL and size must be positive");
+        }
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The cached state, or null when unknown or stale
+     */
+    Boolean get(Long slotId) {
+        Entry entry = entries.get(slotId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - clock.getAsLong() <= 0) {
+            entries.remove(slotId, entry);
+            return null;
+        }
+        return entry.held();
+    }
+
+    void put(Long slotId, boolean held) {
+        if (entries.size() >= maxEntries && !entries.containsKey(slotId)) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                // Still full of live entries: start over rather than track recency
+                entries.clear();
+            }
+        }
+        entries.put(slotId, new Entry(held, clock.getAsLong() + ttlNanos));
+    }
+
+    void invalidate(Long slotId) {
+        entries.remove(slotId);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evictExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(e -> e.expiresAtNanos() - now <= 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.appointment.booking.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory slot holds used while Redis is unavailable.
+ * Same rules as the Redis holds (one hold per slot, re-hold by the owner refreshes it),
+ * but only visible to this instance.
+ */
+final class LocalHoldStore {
+
+    record Hold(String token, Long patientId, long expiresAtMillis) {}
+
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    LocalHoldStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return The hold token, or null when another patient holds the slot
+     */
+    String create(Long slotId, Long patientId, long ttlMillis) {
+        long now = clock.getAsLong();
+        Hold hold = holds.compute(slotId, (id, current) -> {
+            if (current == null || current.expiresAtMillis() <= now) {
+                return new Hold(UUID.randomUUID().toString(), patientId, now + ttlMillis);
+            }
+            if (current.patientId().equals(patientId)) {
+                return new Hold(current.token(), patientId, now + ttlMillis);
+            }
+            return current;
+        });
+        return hold.patientId().equals(patientId) ? hold.token() : null;
+    }
+
+    /**
+     * Removes the hold if it is live and matches token and patient
+     */
+    boolean consume(Long slotId, String token, Long patientId) {
+        Hold hold = active(slotId);
+        return hold != null && hold.token().equals(token) && hold.patientId().equals(patientId)
+                && holds.remove(slotId, hold);
+    }
+
+    boolean release(Long slotId, String token) {
+        Hold hold = holds.get(slotId);
+        return hold != null && hold.token().equals(token) && holds.remove(slotId, hold);
+    }
+
+    Hold active(Long slotId) {
+        Hold hold = holds.get(slotId);
+        if (hold == null) {
+            return null;
+        }
+        if (hold.expiresAtMillis() <= clock.getAsLong()) {
+            holds.remove(slotId, hold);
+            return null;
+        }
+        return hold;
+    }
+
+    Set<Long> heldAmong(Collection<Long> slotIds) {
+        if (holds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> held = new HashSet<>();
+        for (Long slotId : slotIds) {
+            if (active(slotId) != null) {
+                held.add(slotId);
+            }
+        }
+        return held;
+    }
+
+    boolean isEmpty() {
+        return holds.isEmpty();
+    }
+
+    /**
+     * Drops expired holds
+     */
+    void purgeExpired() {
+        long now = clock.getAsLong();
+        holds.values().removeIf(h -> h.expiresAtMillis() <= now);
+    }
+}
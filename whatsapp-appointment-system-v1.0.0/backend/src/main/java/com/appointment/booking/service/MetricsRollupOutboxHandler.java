@@ -0,0 +1,46 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.event.DailyMetricsChangedEvent;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository.DailyMetrics;
+import com.appointment.common.outbox.OutboxEvent;
+import com.appointment.common.outbox.OutboxEventHandler;
+import com.appointment.common.outbox.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps the daily metrics rollup current as bookings and payments change
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricsRollupOutboxHandler implements OutboxEventHandler {
+
+    private final DoctorDailyMetricsRepository metricsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String name() {
+        return "metrics-rollup";
+    }
+
+    @Override
+    public Set<OutboxEventType> eventTypes() {
+        return EnumSet.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_CONFIRMED,
+                OutboxEventType.BOOKING_CANCELLED, OutboxEventType.BOOKING_COMPLETED,
+                OutboxEventType.PAYMENT_SUCCEEDED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Optional<DailyMetrics> refreshed = "PAYMENT".equals(event.type().getAggregateType())
+                ? metricsRepository.refreshForPayment(event.aggregateId())
+                : metricsRepository.refreshForBooking(event.aggregateId());
+        refreshed.ifPresent(metrics -> eventPublisher.publishEvent(new DailyMetricsChangedEvent(metrics)));
+    }
+}
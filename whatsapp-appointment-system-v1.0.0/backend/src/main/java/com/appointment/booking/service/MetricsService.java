@@ -1,33 +1,134 @@
 package com.appointment.booking.service;
 
 import com.appointment.booking.dto.DashboardMetricsDto;
-import com.appointment.booking.repository.BookingRepository;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository.DailyMetrics;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.Collections;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Dashboard figures, read from the {@code doctor_daily_metrics} rollup.
+ * <p>
+ * Charts cover at most a year of days, so a request reads at most 366 rollup rows
+ * and never scans {@code bookings}.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MetricsService {
-    
-    private final BookingRepository bookingRepository;
-    
+
+    static final int DAILY_CHART_DAYS = 30;
+    static final int WEEKLY_CHART_WEEKS = 52;
+
+    private final DoctorDailyMetricsRepository metricsRepository;
+
+    @Value("${metrics.rollup.reconcile-past-days:35}")
+    private int reconcilePastDays;
+
+    @Value("${metrics.rollup.reconcile-future-days:90}")
+    private int reconcileFutureDays;
+
     public DashboardMetricsDto getDashboardMetrics(Long doctorId, LocalDate date) {
-        // Simplified metrics
-        long booked = bookingRepository.countByDoctorIdAndDate(doctorId, date);
+        List<DailyMetrics> day = metricsRepository.findByDoctorBetween(doctorId, date, date);
+        if (day.isEmpty()) {
+            return DashboardMetricsDto.builder().build();
+        }
+        DailyMetrics metrics = day.get(0);
         return DashboardMetricsDto.builder()
-                .slotsBooked(booked)
-                .customersAttendedToday(booked) // Assuming attended = booked for now
+                .slotsBooked(metrics.bookingsTotal() - metrics.cancelledCount())
+                .customersAttendedToday(metrics.completedCount())
                 .build();
     }
 
+    /**
+     * @param period "daily" for the 30 days up to {@code startDate}, "weekly" for the 52 weeks
+     *               (Monday to Sunday) up to the week containing it
+     */
     public DashboardMetricsDto.ChartData getChartData(Long doctorId, String period, LocalDate startDate) {
-        // Placeholder for chart data
+        List<DashboardMetricsDto.DataPoint> points = switch (period) {
+            case "daily" -> dailyPoints(doctorId, startDate);
+            case "weekly" -> weeklyPoints(doctorId, startDate);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "period must be daily or weekly");
+        };
         return DashboardMetricsDto.ChartData.builder()
                 .period(period)
-                .dataPoints(Collections.emptyList())
+                .dataPoints(points)
+                .build();
+    }
+
+    private List<DashboardMetricsDto.DataPoint> dailyPoints(Long doctorId, LocalDate end) {
+        LocalDate from = end.minusDays(DAILY_CHART_DAYS - 1);
+        Map<LocalDate, DailyMetrics> byDate = load(doctorId, from, end);
+        List<DashboardMetricsDto.DataPoint> points = new ArrayList<>(DAILY_CHART_DAYS);
+        for (LocalDate d = from; !d.isAfter(end); d = d.plusDays(1)) {
+            DailyMetrics m = byDate.get(d);
+            points.add(point(d.toString(), m != null ? bookedCount(m) : 0, m != null ? m.revenue() : BigDecimal.ZERO));
+        }
+        return points;
+    }
+
+    private List<DashboardMetricsDto.DataPoint> weeklyPoints(Long doctorId, LocalDate date) {
+        LocalDate end = date.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        LocalDate from = end.minusWeeks(WEEKLY_CHART_WEEKS).plusDays(1);
+        Map<LocalDate, DailyMetrics> byDate = load(doctorId, from, end);
+        List<DashboardMetricsDto.DataPoint> points = new ArrayList<>(WEEKLY_CHART_WEEKS);
+        for (LocalDate week = from; week.isBefore(end); week = week.plusWeeks(1)) {
+            long count = 0;
+            BigDecimal revenue = BigDecimal.ZERO;
+            for (int i = 0; i < 7; i++) {
+                DailyMetrics m = byDate.get(week.plusDays(i));
+                if (m != null) {
+                    count += bookedCount(m);
+                    revenue = revenue.add(m.revenue());
+                }
+            }
+            points.add(point(week.toString(), count, revenue));
+        }
+        return points;
+    }
+
+    private Map<LocalDate, DailyMetrics> load(Long doctorId, LocalDate from, LocalDate to) {
+        return metricsRepository.findByDoctorBetween(doctorId, from, to).stream()
+                .collect(Collectors.toMap(DailyMetrics::date, Function.identity()));
+    }
+
+    private static long bookedCount(DailyMetrics m) {
+        return m.bookingsTotal() - m.cancelledCount();
+    }
+
+    private static DashboardMetricsDto.DataPoint point(String label, long count, BigDecimal revenue) {
+        return DashboardMetricsDto.DataPoint.builder()
+                .label(label)
+                .count(count)
+                .amount(revenue.doubleValue())
                 .build();
     }
+
+    /**
+     * Rebuilds the rollup around today from the source tables, repairing anything the
+     * event-driven refresh missed (status changes made outside the services, lost events)
+     */
+    @Transactional
+    public int reconcile(LocalDate today) {
+        LocalDate from = today.minusDays(reconcilePastDays);
+        LocalDate to = today.plusDays(reconcileFutureDays);
+        int rows = metricsRepository.rebuild(from, to);
+        log.info("Reconciled {} daily metrics rows between {} and {}", rows, from, to);
+        return rows;
+    }
 }
@@ -1,5 +1,8 @@
 package com.appointment.booking.service;
 
+import com.appointment.booking.event.BookingChangedEvent;
+import com.appointment.booking.event.DoctorAvailabilityChangedEvent;
+import com.appointment.booking.event.PendingRequestChangedEvent;
 import com.appointment.booking.model.Booking;
 import com.appointment.booking.model.Booking.BookingStatus;
 import com.appointment.booking.model.PendingAppointmentRequest;
@@ -7,7 +10,10 @@ import com.appointment.booking.repository.BookingRepository;
 import com.appointment.booking.repository.PendingAppointmentRequestRepository;
 import com.appointment.auth.repository.UserRepository;
 import com.appointment.auth.model.User;
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.common.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -24,6 +30,8 @@ public class PendingRequestService {
     private final PendingAppointmentRequestRepository requestRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
 
     public PendingAppointmentRequest createPendingRequest(String doctorPhone, String patientPhone, String patientName, LocalDate date, String time, String description, Long addressId) {
         PendingAppointmentRequest request = PendingAppointmentRequest.builder()
@@ -36,7 +44,10 @@ public class PendingRequestService {
                 .addressId(addressId)
                 .expiresAt(java.time.LocalDateTime.now().plusMinutes(30))
                 .build();
-        return requestRepository.save(request);
+        PendingAppointmentRequest saved = requestRepository.save(request);
+        userRepository.findByPhone(doctorPhone).ifPresent(doctor -> eventPublisher.publishEvent(
+                new PendingRequestChangedEvent(doctor.getId(), saved.getId(), PendingRequestChangedEvent.Change.CREATED)));
+        return saved;
     }
 
     public List<PendingAppointmentRequest> getPendingRequests(Long doctorId) {
@@ -89,6 +100,12 @@ public class PendingRequestService {
             
             // Save booking
             Booking saved = bookingRepository.save(booking);
+            outboxService.append(OutboxEventType.BOOKING_CONFIRMED, saved.getId());
+            eventPublisher.publishEvent(new DoctorAvailabilityChangedEvent(doctorId));
+            eventPublisher.publishEvent(new BookingChangedEvent(doctorId, saved.getId(),
+                    saved.getBookingDate(), saved.getStartTime(), saved.getStatus()));
+            eventPublisher.publishEvent(new PendingRequestChangedEvent(doctorId, requestId,
+                    PendingRequestChangedEvent.Change.CONFIRMED));
             
             // Remove request
             requestRepository.delete(request);
@@ -106,6 +123,8 @@ public class PendingRequestService {
         PendingAppointmentRequest request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Request not found"));
         requestRepository.delete(request);
+        eventPublisher.publishEvent(new PendingRequestChangedEvent(doctorId, requestId,
+                PendingRequestChangedEvent.Change.REJECTED));
         // Could send notification here
     }
 }
@@ -0,0 +1,391 @@
+package com.appointment.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Slot holds in Redis (slot.hold.backend=redis, the default).
+ *
+ * A slot has at most one hold, stored under a single key (slot:hold:{slotId} ->
+ * {token}|{patientId}) with a PX expiry. Create, validate-and-consume and release
+ * are each one server-side script, so every operation is a single atomic round trip.
+ *
+ * Hold lookups can optionally be served from a local near-cache. Entries are dropped
+ * when this instance changes a hold, when Redis reports a change to a hold key through
+ * keyspace notifications (covering other instances and expiry), and in any case after
+ * the configured staleness bound.
+ *
+ * Redis calls go through a circuit breaker. After repeated failures (timeouts included)
+ * the circuit opens and calls fail fast instead of waiting for the Redis timeout; new
+ * holds are then kept in memory on this instance until Redis answers again. Local holds
+ * are not visible to other instances, so while the circuit is open two patients on
+ * different instances can hold the same slot. The conditional slot claim in
+ * {@link SlotService#bookSlot} still guarantees that only one of them can book it, the
+ * other gets a conflict at booking time instead of at hold time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "slot.hold.backend", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedisSlotHoldBackend implements SlotHoldBackend {
+    
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${slot.hold.near-cache.enabled:false}")
+    private boolean nearCacheEnabled;
+    
+    @Value("${slot.hold.near-cache.max-staleness-ms:2000}")
+    private long nearCacheMaxStalenessMs;
+    
+    @Value("${slot.hold.near-cache.max-entries:100000}")
+    private int nearCacheMaxEntries;
+    
+    @Value("${slot.hold.near-cache.configure-keyspace-events:true}")
+    private boolean configureKeyspaceEvents;
+    
+    @Value("${slot.hold.circuit-breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+    
+    @Value("${slot.hold.circuit-breaker.open-duration-ms:10000}")
+    private long breakerOpenDurationMs;
+    
+    private CircuitBreaker circuitBreaker;
+    private final LocalHoldStore localHolds = new LocalHoldStore(System::currentTimeMillis);
+    private final Map<String, Timer> redisTimers = new ConcurrentHashMap<>();
+    
+    private HoldNearCache nearCache;
+    private RedisMessageListenerContainer invalidationListener;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    
+    private static final String HOLD_KEY_PREFIX = "slot:hold:";
+    private static final String SEPARATOR = "|";
+    private static final String KEYSPACE_PATTERN = "__keyspace@*__:" + HOLD_KEY_PREFIX + "*";
+    
+    /**
+     * Sets the hold if the slot is free; a patient asking again for a slot they already
+     * hold gets their existing token back with a fresh expiry.
+     * Returns the stored value, or nil when another patient holds the slot.
+     */
+    private static final RedisScript<String> CREATE_SCRIPT = RedisScript.of(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if not current then " +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) " +
+            "  return ARGV[1] " +
+            "end " +
+            "if string.sub(current, -string.len(ARGV[2])) == ARGV[2] then " +
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "  return current " +
+            "end " +
+            "return false",
+            String.class);
+    
+    /**
+     * Deletes the hold only if it carries the expected value; returns 1 when deleted
+     */
+    private static final RedisScript<Long> CONSUME_SCRIPT = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+    
+    /**
+     * Deletes the hold only if it was issued with the given token; returns 1 when deleted
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if current and string.sub(current, 1, string.len(ARGV[1])) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+    
+    /**
+     * Raised when Redis cannot be used, either because the call failed or the circuit is open
+     */
+    private static final class HoldStoreUnavailableException extends RuntimeException {
+        HoldStoreUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        circuitBreaker = new CircuitBreaker(breakerFailureThreshold,
+                TimeUnit.MILLISECONDS.toNanos(breakerOpenDurationMs), System::nanoTime);
+        Gauge.builder("slot.hold.circuit.open", circuitBreaker, cb -> cb.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while Redis hold calls are short-circuited")
+                .register(meterRegistry);
+        if (nearCacheEnabled) {
+            startNearCache();
+        }
+    }
+    
+    private void startNearCache() {
+        nearCache = new HoldNearCache(TimeUnit.MILLISECONDS.toNanos(nearCacheMaxStalenessMs),
+                nearCacheMaxEntries, System::nanoTime);
+        cacheHits = meterRegistry.counter("slot.hold.cache.requests", "result", "hit");
+        cacheMisses = meterRegistry.counter("slot.hold.cache.requests", "result", "miss");
+        Gauge.builder("slot.hold.cache.size", nearCache, HoldNearCache::size)
+                .description("Slots with a cached hold state")
+                .register(meterRegistry);
+        
+        if (configureKeyspaceEvents) {
+            enableKeyspaceEvents();
+        }
+        invalidationListener = new RedisMessageListenerContainer();
+        invalidationListener.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        invalidationListener.addMessageListener(this::onHoldKeyEvent, new PatternTopic(KEYSPACE_PATTERN));
+        invalidationListener.afterPropertiesSet();
+        invalidationListener.start();
+        log.info("Slot hold near-cache enabled (max staleness {} ms, max {} entries)",
+                nearCacheMaxStalenessMs, nearCacheMaxEntries);
+    }
+    
+    @PreDestroy
+    void stopNearCache() throws Exception {
+        if (invalidationListener != null) {
+            invalidationListener.destroy();
+        }
+    }
+    
+    /**
+     * Turns on generic and expiry keyspace events; managed Redis services usually
+     * forbid CONFIG, in which case they must be enabled on the server
+     */
+    private void enableKeyspaceEvents() {
+        try {
+            redisTemplate.execute((RedisConnection connection) -> {
+                connection.serverCommands().setConfig("notify-keyspace-events", "Kg$x");
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Could not enable Redis keyspace notifications ({}); near-cache entries "
+                    + "will only be refreshed by the staleness bound", e.getMessage());
+        }
+    }
+    
+    /**
+     * Keyspace notification for a hold key (set, del, expired, ...): forget the slot
+     */
+    private void onHoldKeyEvent(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String slotId = channel.substring(channel.lastIndexOf(HOLD_KEY_PREFIX) + HOLD_KEY_PREFIX.length());
+        try {
+            nearCache.invalidate(Long.valueOf(slotId));
+        } catch (NumberFormatException e) {
+            // Not a hold key of the current layout
+        }
+    }
+    
+    private void invalidate(Long slotId) {
+        if (nearCache != null) {
+            nearCache.invalidate(slotId);
+        }
+    }
+    
+    @Override
+    public String createHold(Long slotId, Long patientId, Duration duration) {
+        String holdToken;
+        if (localHolds.active(slotId) != null) {
+            // Created during an outage; stays authoritative until it is consumed or expires
+            holdToken = localHolds.create(slotId, patientId, duration.toMillis());
+        } else {
+            try {
+                String stored = callRedis("create", () -> redisTemplate.execute(CREATE_SCRIPT, List.of(holdKey(slotId)),
+                        holdValue(UUID.randomUUID().toString(), patientId), SEPARATOR + patientId,
+                        String.valueOf(duration.toMillis())));
+                holdToken = stored != null ? stored.substring(0, stored.lastIndexOf(SEPARATOR)) : null;
+            } catch (HoldStoreUnavailableException e) {
+                log.warn("Redis unavailable ({}), holding slot {} locally", e.getMessage(), slotId);
+                holdToken = localHolds.create(slotId, patientId, duration.toMillis());
+            }
+        }
+        if (holdToken != null) {
+            invalidate(slotId);
+        }
+        return holdToken;
+    }
+    
+    @Override
+    public boolean consumeHold(Long slotId, String holdToken, Long patientId) {
+        boolean consumed = localHolds.consume(slotId, holdToken, patientId);
+        if (!consumed) {
+            try {
+                Long deleted = callRedis("consume", () -> redisTemplate.execute(CONSUME_SCRIPT,
+                        List.of(holdKey(slotId)), holdValue(holdToken, patientId)));
+                consumed = deleted != null && deleted > 0;
+            } catch (HoldStoreUnavailableException e) {
+                log.warn("Redis unavailable ({}), cannot validate hold for slot {}", e.getMessage(), slotId);
+                return false;
+            }
+        }
+        if (consumed) {
+            invalidate(slotId);
+        }
+        return consumed;
+    }
+    
+    @Override
+    public boolean releaseHold(Long slotId, String holdToken) {
+        boolean released = localHolds.release(slotId, holdToken);
+        if (!released) {
+            try {
+                Long deleted = callRedis("release", () -> redisTemplate.execute(RELEASE_SCRIPT,
+                        List.of(holdKey(slotId)), holdToken + SEPARATOR));
+                released = deleted != null && deleted > 0;
+            } catch (HoldStoreUnavailableException e) {
+                // The hold expires on its own
+                log.warn("Redis unavailable ({}), hold on slot {} left to expire", e.getMessage(), slotId);
+            }
+        }
+        if (released) {
+            invalidate(slotId);
+        }
+        return released;
+    }
+    
+    /**
+     * Local holds and the near-cache are checked first; the rest is a single MGET over
+     * the hold keys. While Redis is unavailable only locally known holds are reported.
+     */
+    @Override
+    public Set<Long> findHeldSlotIds(Collection<Long> slotIds) {
+        if (slotIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> held = new HashSet<>(localHolds.heldAmong(slotIds));
+        List<Long> misses = new ArrayList<>();
+        if (nearCache != null) {
+            for (Long slotId : slotIds) {
+                Boolean cached = nearCache.get(slotId);
+                if (cached == null) {
+                    misses.add(slotId);
+                } else if (cached) {
+                    held.add(slotId);
+                }
+            }
+            cacheHits.increment(slotIds.size() - misses.size());
+            cacheMisses.increment(misses.size());
+            if (misses.isEmpty()) {
+                return held;
+            }
+        } else {
+            misses.addAll(slotIds);
+        }
+        try {
+            List<String> values = callRedis("lookup",
+                    () -> redisTemplate.opsForValue().multiGet(misses.stream().map(RedisSlotHoldBackend::holdKey).toList()));
+            if (values == null) {
+                return held;
+            }
+            for (int i = 0; i < misses.size(); i++) {
+                boolean isHeld = values.get(i) != null;
+                if (isHeld) {
+                    held.add(misses.get(i));
+                }
+                if (nearCache != null) {
+                    nearCache.put(misses.get(i), isHeld);
+                }
+            }
+            return held;
+        } catch (HoldStoreUnavailableException e) {
+            log.debug("Redis unavailable in findHeldSlotIds: {}", e.getMessage());
+            return held;
+        }
+    }
+    
+    @Override
+    public Optional<String> findHoldToken(Long slotId) {
+        LocalHoldStore.Hold local = localHolds.active(slotId);
+        if (local != null) {
+            return Optional.of(local.token());
+        }
+        try {
+            String value = callRedis("lookup", () -> redisTemplate.opsForValue().get(holdKey(slotId)));
+            return Optional.ofNullable(value).map(v -> v.substring(0, v.lastIndexOf(SEPARATOR)));
+        } catch (HoldStoreUnavailableException e) {
+            log.debug("Redis unavailable in findHoldToken: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Drops expired local holds
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredLocalHolds() {
+        localHolds.purgeExpired();
+    }
+    
+    /**
+     * Runs a Redis call through the circuit breaker and records its latency
+     * @throws HoldStoreUnavailableException when the circuit is open or the call fails
+     */
+    private <T> T callRedis(String operation, Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new HoldStoreUnavailableException("circuit open", null);
+        }
+        Timer timer = redisTimers.computeIfAbsent(operation, op -> Timer.builder("slot.hold.redis.duration")
+                .description("Latency of Redis calls made for slot holds")
+                .tag("operation", op)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            if (circuitBreaker.onSuccess()) {
+                log.info("Redis reachable again, slot hold circuit closed");
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (circuitBreaker.onFailure()) {
+                log.error("Slot hold circuit opened after Redis failures, failing fast for {} ms",
+                        breakerOpenDurationMs, e);
+            }
+            throw new HoldStoreUnavailableException(e.getMessage(), e);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    private static String holdKey(Long slotId) {
+        return HOLD_KEY_PREFIX + slotId;
+    }
+    
+    private static String holdValue(String holdToken, Long patientId) {
+        return holdToken + SEPARATOR + patientId;
+    }
+}
@@ -0,0 +1,331 @@
+package com.appointment.booking.service;
+
+import com.appointment.auth.model.User.UserRole;
+import com.appointment.auth.repository.UserRepository;
+import com.appointment.booking.event.DoctorScheduleChangedEvent;
+import com.appointment.booking.model.SlotGenerationRun;
+import com.appointment.booking.model.SlotGenerationRun.RunStatus;
+import com.appointment.booking.repository.SlotGenerationRunRepository;
+import com.appointment.common.config.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly job that materializes the slot horizon of every active doctor.
+ * Doctor ids are streamed in keyset pages and each page is processed as one
+ * transaction on a bounded worker pool. Progress is stored per run date so a
+ * crashed or timed out run resumes from the last fully completed doctor id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotGenerationJob {
+
+    private final UserRepository userRepository;
+    private final SlotService slotService;
+    private final SlotGenerationRunRepository runRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    // A RUNNING row that has not been touched for this long belongs to a dead instance
+    private static final Duration STALE_RUN_AFTER = Duration.ofMinutes(15);
+
+    @Value("${slot.generation.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${slot.generation.workers:4}")
+    private int workers;
+
+    @Value("${slot.generation.max-run-minutes:180}")
+    private long maxRunMinutes;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile double lastRunDoctorsPerSecond;
+
+    private Timer doctorTimer;
+    private Timer runTimer;
+    private Counter doctorsCounter;
+    private Counter slotsCounter;
+    private Counter failedChunksCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        doctorTimer = Timer.builder("slot.generation.doctor.duration")
+                .description("Time to materialize one doctor's slot horizon")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        runTimer = Timer.builder("slot.generation.run.duration")
+                .description("Wall time of a slot generation run")
+                .register(meterRegistry);
+        doctorsCounter = Counter.builder("slot.generation.doctors")
+                .description("Doctors whose horizon was materialized")
+                .register(meterRegistry);
+        slotsCounter = Counter.builder("slot.generation.slots.created")
+                .description("Slots inserted by the generation job")
+                .register(meterRegistry);
+        failedChunksCounter = Counter.builder("slot.generation.chunks.failed")
+                .description("Doctor chunks rolled back by the generation job")
+                .register(meterRegistry);
+        Gauge.builder("slot.generation.last.run.throughput", this, job -> job.lastRunDoctorsPerSecond)
+                .description("Doctors per second achieved by the last finished run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled job to generate slots for all active doctors
+     */
+    @Scheduled(cron = "${slot.generation.cron:0 0 2 * * ?}", scheduler = SchedulingConfig.BLOCKING_SCHEDULER)
+    public void generateSlotsForAllDoctors() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Slot generation already running in this instance, skipping");
+            return;
+        }
+        try {
+            claimRun(LocalDate.now()).ifPresent(this::execute);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Runs today's generation at startup unless it already completed, so a fresh deploy
+     * or an instance that missed the cron tick does not wait for the next night.
+     * A run still in progress on another instance is left alone by the claim.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStartup() {
+        Optional<SlotGenerationRun> today = runRepository.findByRunDate(LocalDate.now());
+        if (today.map(run -> run.getStatus() == RunStatus.COMPLETED).orElse(false)) {
+            return;
+        }
+        today.ifPresentOrElse(
+                run -> log.info("Resuming slot generation run {} after doctor {}", run.getId(), run.getResumeAfterDoctorId()),
+                () -> log.info("No slot generation run for today yet, starting one"));
+        // Its own named thread: the run blocks for a long time and must not occupy a shared pool
+        ExecutorService startupRunner = Executors.newSingleThreadExecutor(
+                new CustomizableThreadFactory("slot-gen-startup-"));
+        CompletableFuture.runAsync(this::generateSlotsForAllDoctors, startupRunner)
+                .whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        log.error("Slot generation run started at startup failed", failure);
+                    }
+                });
+        // Lets the run finish, then the thread ends
+        startupRunner.shutdown();
+    }
+
+    /**
+     * Materializes one doctor's horizon right away when their schedule is created or
+     * replaced, instead of waiting for the nightly run
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(DoctorScheduleChangedEvent event) {
+        try {
+            materializeDoctor(event.doctorId());
+        } catch (Exception e) {
+            // Not fatal: slot listings materialize on demand and the nightly run catches up
+            log.error("Materializing slots for doctor {} failed", event.doctorId(), e);
+        }
+    }
+
+    /**
+     * Materializes a single doctor's slot horizon in its own transaction
+     * @return Number of slots created
+     */
+    public int materializeDoctor(Long doctorId) {
+        Integer created = new TransactionTemplate(transactionManager)
+                .execute(status -> slotService.materializeHorizon(doctorId));
+        int slots = created == null ? 0 : created;
+        slotsCounter.increment(slots);
+        log.info("Materialized {} slots for doctor {}", slots, doctorId);
+        return slots;
+    }
+
+    private Optional<SlotGenerationRun> claimRun(LocalDate runDate) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<SlotGenerationRun> existing = runRepository.findByRunDate(runDate);
+        if (existing.isEmpty()) {
+            try {
+                return Optional.of(runRepository.saveAndFlush(SlotGenerationRun.builder()
+                        .runDate(runDate)
+                        .status(RunStatus.RUNNING)
+                        .startedAt(now)
+                        .updatedAt(now)
+                        .build()));
+            } catch (DataIntegrityViolationException e) {
+                log.info("Slot generation run for {} was claimed by another instance", runDate);
+                return Optional.empty();
+            }
+        }
+
+        SlotGenerationRun run = existing.get();
+        if (run.getStatus() == RunStatus.COMPLETED) {
+            log.info("Slot generation run for {} already completed", runDate);
+            return Optional.empty();
+        }
+        if (run.getStatus() == RunStatus.RUNNING && run.getUpdatedAt().isAfter(now.minus(STALE_RUN_AFTER))) {
+            log.info("Slot generation run for {} is in progress on another instance", runDate);
+            return Optional.empty();
+        }
+        run.setStatus(RunStatus.RUNNING);
+        run.setUpdatedAt(now);
+        run.setFinishedAt(null);
+        return Optional.of(runRepository.saveAndFlush(run));
+    }
+
+    private void execute(SlotGenerationRun run) {
+        log.info("Starting slot generation run {} for {} after doctor {}",
+                run.getId(), run.getRunDate(), run.getResumeAfterDoctorId());
+        long startedNanos = System.nanoTime();
+        long deadlineNanos = startedNanos + TimeUnit.MINUTES.toNanos(maxRunMinutes);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("slot-gen-"));
+        Semaphore inFlight = new Semaphore(workers * 2);
+        ChunkWatermark watermark = new ChunkWatermark();
+        AtomicBoolean failed = new AtomicBoolean(false);
+        int doctorsSubmitted = 0;
+        boolean timedOut = false;
+
+        try {
+            Long afterId = run.getResumeAfterDoctorId();
+            while (true) {
+                if (System.nanoTime() > deadlineNanos) {
+                    timedOut = true;
+                    break;
+                }
+                List<Long> doctorIds = userRepository.findActiveIdsByRoleAfter(
+                        UserRole.DOCTOR, afterId, PageRequest.of(0, chunkSize));
+                if (doctorIds.isEmpty()) {
+                    break;
+                }
+                long lastId = doctorIds.get(doctorIds.size() - 1);
+                watermark.submitted(lastId);
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        processChunk(run.getId(), doctorIds, lastId, watermark);
+                    } catch (Exception e) {
+                        failed.set(true);
+                        failedChunksCounter.increment();
+                        log.error("Slot generation failed for doctors {}..{}", doctorIds.get(0), lastId, e);
+                        runRepository.recordFailure(run.getId(), "Doctors " + doctorIds.get(0) + ".." + lastId + ": " + e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                doctorsSubmitted += doctorIds.size();
+                afterId = lastId;
+            }
+
+            pool.shutdown();
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            if (!pool.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                timedOut = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timedOut = true;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsedNanos = System.nanoTime() - startedNanos;
+        runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        lastRunDoctorsPerSecond = doctorsSubmitted / Math.max(elapsedNanos / 1e9, 0.001);
+        finishRun(run.getId(), timedOut, failed.get());
+        log.info("Slot generation run {} finished: {} doctors in {} s (timedOut={}, failures={})",
+                run.getId(), doctorsSubmitted, TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), timedOut, failed.get());
+    }
+
+    private void processChunk(Long runId, List<Long> doctorIds, long lastId, ChunkWatermark watermark) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer created = transaction.execute(status -> {
+            int total = 0;
+            for (Long doctorId : doctorIds) {
+                long start = System.nanoTime();
+                total += slotService.materializeHorizon(doctorId);
+                doctorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return total;
+        });
+        long slots = created == null ? 0 : created;
+        doctorsCounter.increment(doctorIds.size());
+        slotsCounter.increment(slots);
+
+        OptionalLong resumePoint = watermark.completed(lastId);
+        runRepository.recordProgress(runId, resumePoint.orElse(0L), doctorIds.size(), slots);
+    }
+
+    private void finishRun(Long runId, boolean timedOut, boolean failed) {
+        runRepository.findById(runId).ifPresent(run -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (timedOut || failed) {
+                run.setStatus(RunStatus.FAILED);
+                if (timedOut) {
+                    run.setLastError("Run exceeded " + maxRunMinutes + " minutes");
+                }
+            } else {
+                run.setStatus(RunStatus.COMPLETED);
+            }
+            run.setUpdatedAt(now);
+            run.setFinishedAt(now);
+            runRepository.save(run);
+        });
+    }
+
+    /**
+     * Tracks chunks in submission order. The resume point only advances past a
+     * chunk once it and every chunk before it have committed, so a restart never
+     * skips doctors even though chunks finish out of order.
+     */
+    private static final class ChunkWatermark {
+        private final Deque<Long> pending = new ArrayDeque<>();
+        private final Set<Long> done = new HashSet<>();
+
+        synchronized void submitted(long lastId) {
+            pending.addLast(lastId);
+        }
+
+        synchronized OptionalLong completed(long lastId) {
+            done.add(lastId);
+            Long advanced = null;
+            while (!pending.isEmpty() && done.remove(pending.peekFirst())) {
+                advanced = pending.pollFirst();
+            }
+            return advanced == null ? OptionalLong.empty() : OptionalLong.of(advanced);
+        }
+    }
+}
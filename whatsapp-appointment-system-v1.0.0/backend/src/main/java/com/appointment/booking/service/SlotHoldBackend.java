@@ -0,0 +1,44 @@
+package com.appointment.booking.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Storage for slot holds, selected with slot.hold.backend (redis or database).
+ * Every slot has at most one live hold; all operations are atomic per slot.
+ */
+public interface SlotHoldBackend {
+
+    /**
+     * Holds a free slot, or refreshes the hold when the same patient already holds it
+     * @return The hold token, or null when another patient holds the slot
+     */
+    String createHold(Long slotId, Long patientId, Duration duration);
+
+    /**
+     * Removes the hold if it is live and was issued to this patient with this token
+     */
+    boolean consumeHold(Long slotId, String holdToken, Long patientId);
+
+    /**
+     * Removes the hold if it was issued with this token
+     */
+    boolean releaseHold(Long slotId, String holdToken);
+
+    /**
+     * @return The subset of the given slots that have a live hold
+     */
+    Set<Long> findHeldSlotIds(Collection<Long> slotIds);
+
+    Optional<String> findHoldToken(Long slotId);
+
+    /**
+     * True when holds are stored on the slot rows, so availability queries can exclude
+     * held slots themselves instead of asking the backend
+     */
+    default boolean holdsInSlotTable() {
+        return false;
+    }
+}
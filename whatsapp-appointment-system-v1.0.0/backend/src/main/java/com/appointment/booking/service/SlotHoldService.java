@@ -1,47 +1,56 @@
 package com.appointment.booking.service;
 
+import com.appointment.booking.event.SlotHoldChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 
 /**
- * Service for managing slot holds in Redis
+ * Service for managing slot holds
  * Prevents double-booking by temporarily reserving slots
+ *
+ * Holds are kept by the configured {@link SlotHoldBackend}: Redis by default, or the
+ * slots table itself (slot.hold.backend=database) for deployments without Redis.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SlotHoldService {
     
-    private final RedisTemplate<String, String> redisTemplate;
+    private final SlotHoldBackend holdBackend;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Value("${slot.hold.duration-minutes:5}")
     private int holdDurationMinutes;
     
-    private static final String HOLD_KEY_PREFIX = "slot:hold:";
-    private static final String HOLD_PATTERN = HOLD_KEY_PREFIX + "*";
-    
     /**
      * Creates a hold on a slot
      * @param slotId The slot ID to hold
      * @param patientId The patient ID requesting the hold
      * @return Hold token (UUID) that must be used to confirm the booking
+     * @throws ResponseStatusException 409 when another patient already holds the slot
      */
     public String createHold(Long slotId, Long patientId) {
-        String holdToken = UUID.randomUUID().toString();
-        String holdKey = HOLD_KEY_PREFIX + slotId + ":" + holdToken;
-        String holdValue = patientId.toString();
-        
         Duration holdDuration = Duration.ofMinutes(holdDurationMinutes);
-        redisTemplate.opsForValue().set(holdKey, holdValue, holdDuration);
+        long expiresAt = System.currentTimeMillis() + holdDuration.toMillis();
         
+        String holdToken = holdBackend.createHold(slotId, patientId, holdDuration);
+        if (holdToken == null) {
+            log.info("Slot {} is already held by another patient", slotId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Slot is already held");
+        }
+        
+        eventPublisher.publishEvent(new SlotHoldChangedEvent(slotId, Instant.ofEpochMilli(expiresAt)));
         log.info("Created hold for slot {} with token {} (expires in {} minutes)", 
                 slotId, holdToken, holdDurationMinutes);
         
@@ -56,21 +65,13 @@ public class SlotHoldService {
      * @return true if hold is valid and consumed, false otherwise
      */
     public boolean validateAndConsumeHold(Long slotId, String holdToken, Long patientId) {
-        String holdKey = HOLD_KEY_PREFIX + slotId + ":" + holdToken;
-        String storedPatientId = redisTemplate.opsForValue().get(holdKey);
-        
-        if (storedPatientId == null) {
-            log.warn("Hold not found or expired for slot {} with token {}", slotId, holdToken);
+        if (!holdBackend.consumeHold(slotId, holdToken, patientId)) {
+            log.warn("Hold not found, expired or not owned by patient {} for slot {} with token {}",
+                    patientId, slotId, holdToken);
             return false;
         }
         
-        if (!storedPatientId.equals(patientId.toString())) {
-            log.warn("Hold patient ID mismatch for slot {} with token {}", slotId, holdToken);
-            return false;
-        }
-        
-        // Consume the hold by deleting it
-        redisTemplate.delete(holdKey);
+        eventPublisher.publishEvent(new SlotHoldChangedEvent(slotId, null));
         log.info("Hold validated and consumed for slot {} with token {}", slotId, holdToken);
         return true;
     }
@@ -81,9 +82,10 @@ public class SlotHoldService {
      * @param holdToken The hold token
      */
     public void releaseHold(Long slotId, String holdToken) {
-        String holdKey = HOLD_KEY_PREFIX + slotId + ":" + holdToken;
-        redisTemplate.delete(holdKey);
-        log.info("Hold released for slot {} with token {}", slotId, holdToken);
+        if (holdBackend.releaseHold(slotId, holdToken)) {
+            eventPublisher.publishEvent(new SlotHoldChangedEvent(slotId, null));
+            log.info("Hold released for slot {} with token {}", slotId, holdToken);
+        }
     }
     
     /**
@@ -92,51 +94,34 @@ public class SlotHoldService {
      * @return true if slot has an active hold
      */
     public boolean hasActiveHold(Long slotId) {
-        try {
-            String pattern = HOLD_KEY_PREFIX + slotId + ":*";
-            Set<String> keys = redisTemplate.keys(pattern);
-            return keys != null && !keys.isEmpty();
-        } catch (Exception e) {
-            log.error("Redis error in hasActiveHold: {}", e.getMessage());
-            return false;
+        return !findHeldSlotIds(List.of(slotId)).isEmpty();
+    }
+    
+    /**
+     * Finds which of the given slots currently have an active hold
+     * @param slotIds The slot IDs to check
+     * @return The subset of slot IDs that are held
+     */
+    public Set<Long> findHeldSlotIds(Collection<Long> slotIds) {
+        if (slotIds.isEmpty()) {
+            return Set.of();
         }
+        return holdBackend.findHeldSlotIds(slotIds);
     }
     
     /**
-     * Gets all active holds for a slot
+     * Gets the active hold for a slot
      * @param slotId The slot ID
-     * @return Set of hold tokens
+     * @return The hold token, or an empty set when the slot is free
      */
     public Set<String> getActiveHolds(Long slotId) {
-        try {
-            String pattern = HOLD_KEY_PREFIX + slotId + ":*";
-            Set<String> keys = redisTemplate.keys(pattern);
-            if (keys == null) {
-                return Set.of();
-            }
-            return keys.stream()
-                    .map(key -> key.substring(key.lastIndexOf(':') + 1))
-                    .collect(java.util.stream.Collectors.toSet());
-        } catch (Exception e) {
-            log.error("Redis error in getActiveHolds: {}", e.getMessage());
-            return Set.of();
-        }
+        return holdBackend.findHoldToken(slotId).map(Set::of).orElse(Set.of());
     }
     
     /**
-     * Cleanup expired holds (runs periodically)
-     * Note: Redis TTL handles expiration automatically, but this can be used for logging
+     * True when held slots are excluded by the slot queries themselves
      */
-    @Scheduled(fixedRateString = "${slot.cleanup-interval-minutes:1}", initialDelay = 60000)
-    public void cleanupExpiredHolds() {
-        try {
-            Set<String> allHolds = redisTemplate.keys(HOLD_PATTERN);
-            if (allHolds != null) {
-                log.debug("Found {} active slot holds", allHolds.size());
-            }
-        } catch (Exception e) {
-            log.error("Error during hold cleanup", e);
-        }
+    public boolean holdsInSlotTable() {
+        return holdBackend.holdsInSlotTable();
     }
 }
-
@@ -0,0 +1,115 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.model.Availability;
+import com.appointment.booking.model.AvailabilityException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out a doctor's slot grid in memory from the weekly availability
+ * and the per-date exceptions, without touching the slots table
+ */
+@Component
+public class SlotPlanner {
+    
+    static final LocalTime DEFAULT_START_TIME = LocalTime.of(9, 0);
+    static final LocalTime DEFAULT_END_TIME = LocalTime.of(17, 0);
+    static final int DEFAULT_SLOT_DURATION_MINUTES = 30;
+    
+    /**
+     * A slot position on the grid (not yet persisted)
+     */
+    public record PlannedSlot(LocalDate date, LocalTime startTime, LocalTime endTime) {}
+    
+    /**
+     * A continuous block of working hours cut into slots of the given length
+     */
+    public record WorkingWindow(LocalTime startTime, LocalTime endTime, int slotDurationMinutes) {}
+    
+    /**
+     * Resolves the working windows for a date
+     * @param date The date
+     * @param weekly All availability rows of the doctor (any day, active or not)
+     * @param exception The exception for that date, or null
+     */
+    public List<WorkingWindow> resolveWindows(LocalDate date, List<Availability> weekly, AvailabilityException exception) {
+        if (exception != null) {
+            if (exception.getExceptionType() == AvailabilityException.ExceptionType.BLOCKED) {
+                return List.of();
+            }
+            if (exception.getExceptionType() == AvailabilityException.ExceptionType.MODIFIED_HOURS) {
+                if (exception.getStartTime() == null || exception.getEndTime() == null) {
+                    return List.of();
+                }
+                return List.of(new WorkingWindow(
+                        exception.getStartTime(), exception.getEndTime(), DEFAULT_SLOT_DURATION_MINUTES));
+            }
+        }
+        
+        List<Availability> forDay = weekly.stream()
+                .filter(a -> a.getDayOfWeek() == date.getDayOfWeek())
+                .toList();
+        if (forDay.isEmpty()) {
+            // Default availability: 09:00 - 17:00 if not configured
+            return List.of(new WorkingWindow(DEFAULT_START_TIME, DEFAULT_END_TIME, DEFAULT_SLOT_DURATION_MINUTES));
+        }
+        
+        List<WorkingWindow> windows = new ArrayList<>();
+        for (Availability availability : forDay) {
+            if (Boolean.TRUE.equals(availability.getIsActive())) {
+                windows.add(new WorkingWindow(
+                        availability.getStartTime(),
+                        availability.getEndTime(),
+                        availability.getSlotDurationMinutes()));
+            }
+        }
+        return windows;
+    }
+    
+    /**
+     * Plans all slots for a single date
+     */
+    public List<PlannedSlot> planDay(LocalDate date, List<Availability> weekly, AvailabilityException exception) {
+        List<PlannedSlot> slots = new ArrayList<>();
+        for (WorkingWindow window : resolveWindows(date, weekly, exception)) {
+            addSlots(slots, date, window);
+        }
+        return slots;
+    }
+    
+    /**
+     * Plans all slots for an inclusive date range
+     * @param exceptions Exceptions keyed by date
+     */
+    public List<PlannedSlot> planRange(LocalDate startDate, LocalDate endDate, List<Availability> weekly,
+                                       Map<LocalDate, AvailabilityException> exceptions) {
+        List<PlannedSlot> slots = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            for (WorkingWindow window : resolveWindows(date, weekly, exceptions.get(date))) {
+                addSlots(slots, date, window);
+            }
+        }
+        return slots;
+    }
+    
+    private void addSlots(List<PlannedSlot> slots, LocalDate date, WorkingWindow window) {
+        int duration = window.slotDurationMinutes();
+        if (duration <= 0) {
+            return;
+        }
+        // Work in minutes of the day so a window ending at midnight cannot wrap around
+        int start = window.startTime().toSecondOfDay() / 60;
+        int end = window.endTime().toSecondOfDay() / 60;
+        for (int minute = start; minute + duration <= end; minute += duration) {
+            slots.add(new PlannedSlot(
+                    date,
+                    LocalTime.ofSecondOfDay(minute * 60L),
+                    LocalTime.ofSecondOfDay((minute + duration) * 60L)));
+        }
+    }
+}
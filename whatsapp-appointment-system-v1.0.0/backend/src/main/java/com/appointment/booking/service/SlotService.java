@@ -6,20 +6,28 @@ import com.appointment.booking.model.Slot;
 import com.appointment.booking.model.Slot.SlotStatus;
 import com.appointment.booking.repository.AvailabilityExceptionRepository;
 import com.appointment.booking.repository.AvailabilityRepository;
+import com.appointment.booking.repository.SlotBatchRepository;
+import com.appointment.booking.repository.SlotBatchRepository.SlotRow;
+import com.appointment.booking.repository.SlotHorizonRepository;
 import com.appointment.booking.repository.SlotRepository;
+import com.appointment.booking.service.SlotPlanner.PlannedSlot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -27,158 +35,212 @@ import java.util.Optional;
 public class SlotService {
     
     private final SlotRepository slotRepository;
+    private final SlotBatchRepository slotBatchRepository;
+    private final SlotHorizonRepository slotHorizonRepository;
     private final AvailabilityRepository availabilityRepository;
     private final AvailabilityExceptionRepository exceptionRepository;
     private final SlotHoldService slotHoldService;
+    private final SlotPlanner slotPlanner;
+    private final AvailabilityEngine availabilityEngine;
+    
+    private record SlotKey(Long doctorId, LocalDate date, LocalTime startTime) {}
+    
+    private static final String MODE_ON_READ = "on-read";
+    private static final String ENGINE_COMPUTED = "computed";
+    
+    @Value("${slot.materialization.mode:horizon}")
+    private String materializationMode;
+    
+    @Value("${slot.materialization.horizon-days:30}")
+    private int horizonDays;
+    
+    @Value("${slot.availability.engine:slots}")
+    private String availabilityEngineMode;
     
     /**
      * Generates slots for a doctor for a given date range
+     * The whole range is planned in memory, diffed against existing rows with one query
+     * and only the missing slots are written in JDBC batches
+     * @return Number of slots created
      */
     @Transactional
-    public void generateSlotsForDateRange(Long doctorId, LocalDate startDate, LocalDate endDate) {
-        LocalDate currentDate = startDate;
+    public int generateSlotsForDateRange(Long doctorId, LocalDate startDate, LocalDate endDate) {
+        List<Availability> weekly = availabilityRepository.findByDoctorId(doctorId);
+        Map<LocalDate, AvailabilityException> exceptions = exceptionRepository
+                .findByDoctorIdAndExceptionDateBetween(doctorId, startDate, endDate)
+                .stream()
+                .collect(Collectors.toMap(AvailabilityException::getExceptionDate, Function.identity(), (a, b) -> a));
         
-        while (!currentDate.isAfter(endDate)) {
-            generateSlotsForDate(doctorId, currentDate);
-            currentDate = currentDate.plusDays(1);
+        List<PlannedSlot> planned = slotPlanner.planRange(startDate, endDate, weekly, exceptions);
+        if (planned.isEmpty()) {
+            log.debug("No slots to generate for doctor {} between {} and {}", doctorId, startDate, endDate);
+            return 0;
         }
+        
+        Set<PlannedSlot> existing = slotRepository.findSlotKeys(doctorId, startDate, endDate)
+                .stream()
+                .map(key -> new PlannedSlot(key.getSlotDate(), key.getStartTime(), key.getEndTime()))
+                .collect(Collectors.toSet());
+        List<PlannedSlot> missing = planned.stream()
+                .filter(slot -> !existing.contains(slot))
+                .toList();
+        
+        int created = slotBatchRepository.insertSlots(doctorId, missing);
+        log.debug("Generated {} slots for doctor {} between {} and {}", created, doctorId, startDate, endDate);
+        return created;
     }
     
     /**
      * Generates slots for a specific date
+     * @return Number of slots created
      */
     @Transactional
-    public void generateSlotsForDate(Long doctorId, LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        
-        // Check for exceptions first
-        Optional<AvailabilityException> exception = exceptionRepository
-                .findByDoctorIdAndExceptionDate(doctorId, date);
-        
-        if (exception.isPresent()) {
-            AvailabilityException ex = exception.get();
-            if (ex.getExceptionType() == AvailabilityException.ExceptionType.BLOCKED) {
-                log.debug("Date {} is blocked for doctor {}", date, doctorId);
-                return; // Don't generate slots for blocked dates
-            } else if (ex.getExceptionType() == AvailabilityException.ExceptionType.MODIFIED_HOURS) {
-                // Use modified hours
-                if (ex.getStartTime() != null && ex.getEndTime() != null) {
-                    generateSlotsForTimeRange(doctorId, date, ex.getStartTime(), ex.getEndTime(), 30);
-                }
-                return;
-            }
+    public int generateSlotsForDate(Long doctorId, LocalDate date) {
+        return generateSlotsForDateRange(doctorId, date, date);
+    }
+    
+    /**
+     * Materializes a doctor's slots from today through the configured horizon
+     * and records the horizon so reads can be served from the slots table
+     * @return Number of slots created
+     */
+    @Transactional
+    public int materializeHorizon(Long doctorId) {
+        LocalDate today = LocalDate.now();
+        LocalDate through = today.plusDays(horizonDays);
+        int created = generateSlotsForDateRange(doctorId, today, through);
+        slotHorizonRepository.advance(doctorId, through);
+        return created;
+    }
+    
+    /**
+     * Gets available slots for a doctor on a specific date
+     * Dates inside the materialized horizon are a pure indexed query. Dates past it (new
+     * doctor, or before the nightly job has run) are computed on the fly and nothing is
+     * written: slots that already have a row carry its id, the others get one from
+     * {@link #resolveSlot} when they are held.
+     * With slot.availability.engine=computed every date is computed in memory
+     */
+    public List<Slot> getAvailableSlots(Long doctorId, LocalDate date) {
+        if (ENGINE_COMPUTED.equalsIgnoreCase(availabilityEngineMode)) {
+            // Computed slots know nothing of holds or slot ids; the rows supply both
+            return attachSlotRows(availabilityEngine.getFreeSlots(doctorId, date, date));
         }
-        
-        // Get regular availability for this day
-        List<Availability> availabilities = availabilityRepository
-                .findByDoctorIdAndDayOfWeek(doctorId, dayOfWeek);
-        
-        if (availabilities.isEmpty()) {
-            // Default availability: 09:00 - 17:00 if not configured
-            generateSlotsForTimeRange(doctorId, date, LocalTime.of(9, 0), LocalTime.of(17, 0), 30);
-        } else {
-            for (Availability availability : availabilities) {
-                if (availability.getIsActive()) {
-                    generateSlotsForTimeRange(
-                            doctorId,
-                            date,
-                            availability.getStartTime(),
-                            availability.getEndTime(),
-                            availability.getSlotDurationMinutes()
-                    );
-                }
-            }
+        if (MODE_ON_READ.equalsIgnoreCase(materializationMode)) {
+            // Legacy behaviour: materialize the date on every read
+            generateSlotsForDate(doctorId, date);
+            return getMaterializedAvailableSlots(doctorId, date);
         }
+        
+        boolean materialized = slotHorizonRepository.findById(doctorId)
+                .map(horizon -> !date.isAfter(horizon.getMaterializedThrough()))
+                .orElse(false);
+        return materialized
+                ? getMaterializedAvailableSlots(doctorId, date)
+                : attachSlotRows(availabilityEngine.getFreeSlots(doctorId, date, date));
     }
     
-    private void generateSlotsForTimeRange(Long doctorId, LocalDate date, 
-                                          LocalTime startTime, LocalTime endTime, 
-                                          int slotDurationMinutes) {
-        LocalTime currentTime = startTime;
-        
-        while (currentTime.plusMinutes(slotDurationMinutes).isBefore(endTime) ||
-               currentTime.plusMinutes(slotDurationMinutes).equals(endTime)) {
-            
-            LocalTime slotEndTime = currentTime.plusMinutes(slotDurationMinutes);
-            
-            // Check if slot already exists
-            Optional<Slot> existingSlot = slotRepository
-                    .findByDoctorIdAndSlotDateAndStartTimeAndEndTime(
-                            doctorId, date, currentTime, slotEndTime);
-            
-            if (existingSlot.isEmpty()) {
-                // Check if slot is held in Redis
-                Slot slot = Slot.builder()
-                        .doctorId(doctorId)
-                        .slotDate(date)
-                        .startTime(currentTime)
-                        .endTime(slotEndTime)
+    /**
+     * Gives computed slots the id of their row where one exists and drops those the row
+     * marks as taken (booked, cancelled or under a live hold). Slots without a row cannot
+     * be held yet and are returned without an id. One query plus one hold lookup.
+     */
+    public List<Slot> attachSlotRows(List<Slot> computed) {
+        List<SlotRow> rows = slotBatchRepository.findRows(computed);
+        if (rows.isEmpty()) {
+            return computed;
+        }
+        Map<SlotKey, SlotRow> rowsByKey = rows.stream()
+                .collect(Collectors.toMap(row -> new SlotKey(row.doctorId(), row.slotDate(), row.startTime()),
+                        Function.identity(), (a, b) -> a));
+        Set<Long> heldSlotIds = slotHoldService.findHeldSlotIds(rows.stream().map(SlotRow::id).toList());
+        List<Slot> result = new ArrayList<>(computed.size());
+        for (Slot slot : computed) {
+            SlotRow row = rowsByKey.get(new SlotKey(slot.getDoctorId(), slot.getSlotDate(), slot.getStartTime()));
+            if (row != null) {
+                // A HELD row whose hold has lapsed is free again
+                boolean free = row.status() == SlotStatus.AVAILABLE || row.status() == SlotStatus.HELD;
+                if (!free || heldSlotIds.contains(row.id())) {
+                    continue;
+                }
+                // Callers may pass shared (e.g. indexed) slots, so the id goes on a copy
+                slot = Slot.builder()
+                        .id(row.id())
+                        .doctorId(slot.getDoctorId())
+                        .slotDate(slot.getSlotDate())
+                        .startTime(slot.getStartTime())
+                        .endTime(slot.getEndTime())
                         .status(SlotStatus.AVAILABLE)
                         .build();
-                
-                slotRepository.save(slot);
             }
-            
-            currentTime = currentTime.plusMinutes(slotDurationMinutes);
+            result.add(slot);
         }
+        return result;
     }
     
     /**
-     * Gets available slots for a doctor on a specific date
+     * The row of a doctor's slot starting at the given time, created if the date has not
+     * been materialized yet, so computed slots can be held and booked by id
+     * @throws ResponseStatusException 400 for a past slot, 404 when the doctor has no slot starting then
      */
-    public List<Slot> getAvailableSlots(Long doctorId, LocalDate date) {
-        // First ensure slots are generated
-        generateSlotsForDate(doctorId, date);
-        
+    @Transactional
+    public Slot resolveSlot(Long doctorId, LocalDate date, LocalTime startTime) {
+        if (LocalDateTime.of(date, startTime).isBefore(LocalDateTime.now())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Slot is in the past");
+        }
+        PlannedSlot planned = slotPlanner.planDay(date, availabilityRepository.findByDoctorId(doctorId),
+                        exceptionRepository.findByDoctorIdAndExceptionDate(doctorId, date).orElse(null))
+                .stream()
+                .filter(slot -> slot.startTime().equals(startTime))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No slot starts at that time"));
+        slotBatchRepository.insertSlots(doctorId, List.of(planned));
+        return slotRepository.findByDoctorIdAndSlotDateAndStartTimeAndEndTime(
+                        doctorId, date, planned.startTime(), planned.endTime())
+                .orElseThrow(() -> new IllegalStateException("Slot row missing after insert"));
+    }
+    
+    private List<Slot> getMaterializedAvailableSlots(Long doctorId, LocalDate date) {
+        if (slotHoldService.holdsInSlotTable()) {
+            // Holds live on the rows: one query, no hold store round trip
+            return slotRepository.findUnheldSlots(doctorId, date, LocalDateTime.now(),
+                    SlotStatus.AVAILABLE, SlotStatus.HELD);
+        }
         List<Slot> slots = slotRepository.findByDoctorIdAndSlotDateAndStatus(
                 doctorId, date, SlotStatus.AVAILABLE);
         
-        // Filter out slots that have active holds
+        // Filter out slots that have active holds (single batched Redis round trip)
+        Set<Long> heldSlotIds = slotHoldService.findHeldSlotIds(
+                slots.stream().map(Slot::getId).toList());
         return slots.stream()
-                .filter(slot -> !slotHoldService.hasActiveHold(slot.getId()))
+                .filter(slot -> !heldSlotIds.contains(slot.getId()))
                 .toList();
     }
     
     /**
-     * Books a slot (marks as booked)
+     * Books a slot (marks as booked).
+     * The claim is a single conditional UPDATE, so concurrent bookings of the same slot
+     * neither race nor queue on an application-level lock; losers get IllegalStateException.
      */
     @Transactional
     public Slot bookSlot(Long slotId) {
-        Slot slot = slotRepository.findById(slotId)
-                .orElseThrow(() -> new IllegalArgumentException("Slot not found"));
-        
-        if (slot.getStatus() != SlotStatus.AVAILABLE) {
+        if (slotRepository.transitionStatus(slotId, SlotStatus.AVAILABLE, SlotStatus.BOOKED) == 0) {
+            if (!slotRepository.existsById(slotId)) {
+                throw new IllegalArgumentException("Slot not found");
+            }
             throw new IllegalStateException("Slot is not available");
         }
-        
-        slot.setStatus(SlotStatus.BOOKED);
-        return slotRepository.save(slot);
+        return slotRepository.findById(slotId)
+                .orElseThrow(() -> new IllegalArgumentException("Slot not found"));
     }
     
     /**
-     * Releases a slot (marks as available)
+     * Releases a booked slot (marks as available); slots in any other status are left alone
      */
     @Transactional
     public Slot releaseSlot(Long slotId) {
-        Slot slot = slotRepository.findById(slotId)
+        slotRepository.transitionStatus(slotId, SlotStatus.BOOKED, SlotStatus.AVAILABLE);
+        return slotRepository.findById(slotId)
                 .orElseThrow(() -> new IllegalArgumentException("Slot not found"));
-        
-        slot.setStatus(SlotStatus.AVAILABLE);
-        return slotRepository.save(slot);
-    }
-    
-    /**
-     * Scheduled job to generate slots for the next 30 days
-     */
-    @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
-    public void generateSlotsForNextMonth() {
-        log.info("Generating slots for next 30 days");
-        LocalDate today = LocalDate.now();
-        LocalDate endDate = today.plusDays(30);
-        
-        // Get all active doctors and generate slots
-        // This would require a doctor service - for now, we'll generate for a specific doctor
-        // In production, iterate through all active doctors
     }
 }
-
@@ -0,0 +1,43 @@
+package com.appointment.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Two schedulers: the default one for short periodic jobs (index refresh, dashboard
+ * push, hold sweeps) and {@value #BLOCKING_SCHEDULER} for jobs that block their thread
+ * for long stretches (slot generation, outbox relay, webhook inbox, reminders). Blocking
+ * jobs opt in with {@code @Scheduled(scheduler = SchedulingConfig.BLOCKING_SCHEDULER)},
+ * so however long they run the frequent jobs keep their own threads.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String BLOCKING_SCHEDULER = "blockingTaskScheduler";
+
+    /**
+     * Declared explicitly because a second scheduler bean turns off Boot's default one;
+     * still sized by spring.task.scheduling.pool.size
+     */
+    @Bean
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * One thread per blocking job by default, so they cannot starve each other either
+     */
+    @Bean(name = BLOCKING_SCHEDULER)
+    public ThreadPoolTaskScheduler blockingTaskScheduler(
+            @Value("${scheduling.blocking.pool-size:5}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("blocking-scheduling-");
+        return scheduler;
+    }
+}
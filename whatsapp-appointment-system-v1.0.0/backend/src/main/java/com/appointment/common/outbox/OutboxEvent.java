@@ -0,0 +1,9 @@
+package com.appointment.common.outbox;
+
+/**
+ * A claimed outbox row
+ * @param payload JSON object with event details, may be null
+ * @param attempts Delivery attempts including the current one
+ */
+public record OutboxEvent(Long id, OutboxEventType type, Long aggregateId, String consumer,
+                          String payload, int attempts) {}
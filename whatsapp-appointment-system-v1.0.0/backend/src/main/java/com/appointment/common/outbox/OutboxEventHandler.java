@@ -0,0 +1,25 @@
+package com.appointment.common.outbox;
+
+import java.util.Set;
+
+/**
+ * Consumer of outbox events.
+ * <p>
+ * Every handler gets its own copy of each event it subscribes to, so a failing
+ * handler is retried without replaying the others. Delivery is at least once:
+ * handlers must tolerate seeing the same event again.
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * Stable consumer name stored with the events; renaming it orphans pending rows
+     */
+    String name();
+
+    Set<OutboxEventType> eventTypes();
+
+    /**
+     * Runs the side effect. Throwing schedules a retry with backoff.
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,102 @@
+package com.appointment.common.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Storage for outbox events.
+ * Claims use FOR UPDATE SKIP LOCKED and push {@code available_at} out by a lease, so
+ * several relays can run side by side and a crashed relay's events are picked up again
+ * once the lease runs out.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxEventRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts one row per consumer; joins the caller's transaction
+     */
+    public void insert(OutboxEventType type, Long aggregateId, String payload, List<String> consumers) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (event_type, aggregate_type, aggregate_id, consumer, payload) " +
+                "VALUES (?, ?, ?, ?, ?)",
+                consumers,
+                consumers.size(),
+                (ps, consumer) -> {
+                    ps.setString(1, type.name());
+                    ps.setString(2, type.getAggregateType());
+                    ps.setLong(3, aggregateId);
+                    ps.setString(4, consumer);
+                    ps.setString(5, payload);
+                });
+    }
+
+    /**
+     * Claims due events in id order. An event is held back while an older event for the
+     * same consumer and aggregate is still pending, so each consumer sees an aggregate's
+     * events in the order they were written.
+     * @param leaseSeconds How long the claim hides the events from other relays
+     */
+    public List<OutboxEvent> claimDue(int limit, int leaseSeconds) {
+        String sql =
+                "WITH due AS (" +
+                "  SELECT o.id FROM outbox_events o" +
+                "  WHERE o.status = 'PENDING' AND o.available_at <= now()" +
+                "    AND NOT EXISTS (SELECT 1 FROM outbox_events p" +
+                "      WHERE p.status = 'PENDING' AND p.consumer = o.consumer" +
+                "        AND p.aggregate_type = o.aggregate_type AND p.aggregate_id = o.aggregate_id" +
+                "        AND p.id < o.id)" +
+                "  ORDER BY o.id" +
+                "  LIMIT ?" +
+                "  FOR UPDATE SKIP LOCKED" +
+                ") " +
+                "UPDATE outbox_events e SET attempts = e.attempts + 1, " +
+                "available_at = now() + make_interval(secs => ?) " +
+                "FROM due WHERE e.id = due.id " +
+                "RETURNING e.id, e.event_type, e.aggregate_id, e.consumer, e.payload, e.attempts";
+        List<OutboxEvent> claimed = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new OutboxEvent(
+                        rs.getLong("id"),
+                        OutboxEventType.valueOf(rs.getString("event_type")),
+                        rs.getLong("aggregate_id"),
+                        rs.getString("consumer"),
+                        rs.getString("payload"),
+                        rs.getInt("attempts")),
+                limit, leaseSeconds);
+        // RETURNING does not keep the CTE order
+        return claimed.stream().sorted(Comparator.comparing(OutboxEvent::id)).toList();
+    }
+
+    public void markProcessed(Long id) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET status = 'PROCESSED', processed_at = now(), last_error = NULL WHERE id = ?",
+                id);
+    }
+
+    /**
+     * Records a failed attempt; the event is retried after the delay or, when
+     * {@code giveUp} is set, parked as FAILED for manual inspection
+     */
+    public void markFailed(Long id, String error, long retryDelaySeconds, boolean giveUp) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET status = ?, last_error = ?, " +
+                "available_at = now() + make_interval(secs => ?) WHERE id = ?",
+                giveUp ? "FAILED" : "PENDING", error, retryDelaySeconds, id);
+    }
+
+    /**
+     * @return Number of processed events deleted
+     */
+    public int deleteProcessedBefore(int retentionDays) {
+        return jdbcTemplate.update(
+                "DELETE FROM outbox_events WHERE status = 'PROCESSED' " +
+                "AND processed_at < now() - make_interval(days => ?)",
+                retentionDays);
+    }
+}
@@ -0,0 +1,23 @@
+package com.appointment.common.outbox;
+
+/**
+ * Events recorded in the outbox, with the kind of entity their aggregate id refers to
+ */
+public enum OutboxEventType {
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_CONFIRMED("BOOKING"),
+    BOOKING_CANCELLED("BOOKING"),
+    BOOKING_COMPLETED("BOOKING"),
+    PAYMENT_SUCCEEDED("PAYMENT"),
+    INVOICE_READY("INVOICE");
+
+    private final String aggregateType;
+
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
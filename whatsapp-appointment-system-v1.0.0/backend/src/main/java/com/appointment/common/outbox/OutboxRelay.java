@@ -0,0 +1,141 @@
+package com.appointment.common.outbox;
+
+import com.appointment.common.config.SchedulingConfig;
+import com.appointment.common.queue.LeasedQueue;
+import com.appointment.common.queue.LeasedQueueWorker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox events to their handlers.
+ * <p>
+ * Each poll claims a batch of due events and runs the handlers on a small worker pool,
+ * so slow provider calls never hold a database connection of the transaction that
+ * produced the event. Claiming, retries with exponential backoff and parking as FAILED
+ * after the last attempt are left to {@link LeasedQueueWorker}.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Map<String, OutboxEventHandler> handlers;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.relay.workers:4}")
+    private int workers;
+
+    @Value("${outbox.relay.lease-seconds:300}")
+    private int leaseSeconds;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.initial-backoff-seconds:5}")
+    private long initialBackoffSeconds;
+
+    @Value("${outbox.relay.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${outbox.retention-days:7}")
+    private int retentionDays;
+
+    private LeasedQueueWorker<OutboxEvent> worker;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxEventHandler> handlers,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers.stream()
+                .collect(Collectors.toUnmodifiableMap(OutboxEventHandler::name, Function.identity()));
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new LeasedQueueWorker<>(new OutboxQueue(),
+                new LeasedQueueWorker.Settings(batchSize, workers, leaseSeconds, maxAttempts,
+                        initialBackoffSeconds, maxBackoffSeconds),
+                "outbox-relay-", "outbox.events", meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.shutdown();
+    }
+
+    /**
+     * Drains due events until a batch comes back short
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}", scheduler = SchedulingConfig.BLOCKING_SCHEDULER)
+    public void relay() {
+        worker.drain();
+    }
+
+    /**
+     * Removes delivered events past the retention period
+     */
+    @Scheduled(cron = "${outbox.cleanup.cron:0 30 3 * * ?}")
+    public void purgeProcessed() {
+        int deleted = worker.purgeProcessed(retentionDays);
+        log.info("Purged {} processed outbox events older than {} days", deleted, retentionDays);
+    }
+
+    private class OutboxQueue implements LeasedQueue<OutboxEvent> {
+
+        @Override
+        public List<OutboxEvent> claimDue(int limit, int leaseSeconds) {
+            return outboxEventRepository.claimDue(limit, leaseSeconds);
+        }
+
+        @Override
+        public void process(OutboxEvent event) throws Exception {
+            OutboxEventHandler handler = handlers.get(event.consumer());
+            if (handler == null) {
+                // Retried rather than parked: during a rolling deploy another node may know the consumer
+                throw new IllegalStateException("Unknown consumer " + event.consumer());
+            }
+            handler.handle(event);
+            outboxEventRepository.markProcessed(event.id());
+        }
+
+        @Override
+        public void markFailed(OutboxEvent event, String error, long retryDelaySeconds, boolean giveUp) {
+            outboxEventRepository.markFailed(event.id(), error, retryDelaySeconds, giveUp);
+        }
+
+        @Override
+        public int deleteProcessedBefore(int retentionDays) {
+            return outboxEventRepository.deleteProcessedBefore(retentionDays);
+        }
+
+        @Override
+        public int attempts(OutboxEvent event) {
+            return event.attempts();
+        }
+
+        @Override
+        public String describe(OutboxEvent event) {
+            return String.format("Outbox event %d (%s for %s %d) for %s", event.id(), event.type(),
+                    event.type().getAggregateType(), event.aggregateId(), event.consumer());
+        }
+
+        @Override
+        public Tags tags(OutboxEvent event) {
+            return Tags.of("consumer", event.consumer());
+        }
+    }
+}
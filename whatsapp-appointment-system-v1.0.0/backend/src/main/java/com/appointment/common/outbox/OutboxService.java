@@ -0,0 +1,61 @@
+package com.appointment.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records events in the outbox as part of the caller's transaction.
+ * The side effects run later in {@link OutboxRelay}, outside of any business transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    // Resolved lazily: handlers depend on services that append events themselves
+    private final ObjectProvider<OutboxEventHandler> handlers;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Appends an event for every handler subscribed to its type.
+     * Must be called inside the transaction that makes the state change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType type, Long aggregateId, Map<String, ?> payload) {
+        List<String> consumers = handlers.orderedStream()
+                .filter(h -> h.eventTypes().contains(type))
+                .map(OutboxEventHandler::name)
+                .toList();
+        if (consumers.isEmpty()) {
+            log.debug("No outbox consumers for {}", type);
+            return;
+        }
+        outboxEventRepository.insert(type, aggregateId, toJson(payload), consumers);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEventType type, Long aggregateId) {
+        append(type, aggregateId, Map.of());
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.appointment.common.queue;
+
+import io.micrometer.core.instrument.Tags;
+
+import java.util.List;
+
+/**
+ * A table-backed work queue whose rows are claimed under a lease and retried on failure.
+ * Drained by a {@link LeasedQueueWorker}.
+ * @param <T> A claimed row
+ */
+public interface LeasedQueue<T> {
+
+    /**
+     * Claims due rows, hiding them from other workers until the lease runs out
+     */
+    List<T> claimDue(int limit, int leaseSeconds);
+
+    /**
+     * Handles one claimed row and marks it processed; throws to have it retried
+     */
+    void process(T item) throws Exception;
+
+    /**
+     * Records a failed attempt
+     * @param giveUp Parks the row as FAILED instead of retrying it after the delay
+     */
+    void markFailed(T item, String error, long retryDelaySeconds, boolean giveUp);
+
+    int deleteProcessedBefore(int retentionDays);
+
+    /**
+     * Attempts of the row including the current one
+     */
+    int attempts(T item);
+
+    /**
+     * Names the row in log messages
+     */
+    String describe(T item);
+
+    /**
+     * Tags of the row's metrics
+     */
+    default Tags tags(T item) {
+        return Tags.empty();
+    }
+}
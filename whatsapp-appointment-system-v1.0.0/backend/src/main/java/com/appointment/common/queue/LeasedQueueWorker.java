@@ -0,0 +1,105 @@
+package com.appointment.common.queue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drains a {@link LeasedQueue}.
+ * <p>
+ * Each drain claims batches of due rows and processes them on a small worker pool until a
+ * batch comes back short. Failures are retried with exponential backoff; after the last
+ * attempt the row is parked as FAILED. Rows claimed but unfinished at shutdown are picked
+ * up again once their lease runs out.
+ * <p>
+ * Records {@code <metricPrefix>.duration}, {@code .processed}, {@code .retried} and {@code .failed}.
+ */
+@Slf4j
+public class LeasedQueueWorker<T> {
+
+    /**
+     * @param leaseSeconds How long a claim hides the rows from other workers
+     * @param maxAttempts Attempts before a row is parked as FAILED
+     */
+    public record Settings(int batchSize, int workers, int leaseSeconds, int maxAttempts,
+                           long initialBackoffSeconds, long maxBackoffSeconds) {}
+
+    private final LeasedQueue<T> queue;
+    private final Settings settings;
+    private final String metricPrefix;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService workerPool;
+
+    public LeasedQueueWorker(LeasedQueue<T> queue, Settings settings, String threadNamePrefix,
+                             String metricPrefix, MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.settings = settings;
+        this.metricPrefix = metricPrefix;
+        this.meterRegistry = meterRegistry;
+        this.workerPool = Executors.newFixedThreadPool(settings.workers(), new CustomizableThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * Processes due rows until a batch comes back short
+     */
+    public void drain() {
+        List<T> batch;
+        do {
+            batch = queue.claimDue(settings.batchSize(), settings.leaseSeconds());
+            CompletableFuture<?>[] processed = batch.stream()
+                    .map(item -> CompletableFuture.runAsync(() -> process(item), workerPool))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(processed).join();
+        } while (batch.size() == settings.batchSize());
+    }
+
+    /**
+     * Removes processed rows past the retention period
+     * @return Rows removed
+     */
+    public int purgeProcessed(int retentionDays) {
+        return queue.deleteProcessedBefore(retentionDays);
+    }
+
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+
+    /**
+     * Delay before the next attempt, doubling per attempt up to the maximum
+     */
+    public long backoffSeconds(int attempts) {
+        return Math.min(settings.maxBackoffSeconds(),
+                settings.initialBackoffSeconds() << Math.min(Math.max(attempts - 1, 0), 20));
+    }
+
+    private void process(T item) {
+        Tags tags = queue.tags(item);
+        try {
+            meterRegistry.timer(metricPrefix + ".duration", tags).recordCallable(() -> {
+                queue.process(item);
+                return null;
+            });
+            meterRegistry.counter(metricPrefix + ".processed", tags).increment();
+        } catch (Exception e) {
+            int attempts = queue.attempts(item);
+            boolean giveUp = attempts >= settings.maxAttempts();
+            long backoff = backoffSeconds(attempts);
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            if (giveUp) {
+                log.error("{} failed after {} attempts", queue.describe(item), attempts, e);
+                meterRegistry.counter(metricPrefix + ".failed", tags).increment();
+            } else {
+                log.warn("{} failed on attempt {}, retrying in {}s: {}", queue.describe(item), attempts, backoff, error);
+                meterRegistry.counter(metricPrefix + ".retried", tags).increment();
+            }
+            queue.markFailed(item, error, backoff, giveUp);
+        }
+    }
+}
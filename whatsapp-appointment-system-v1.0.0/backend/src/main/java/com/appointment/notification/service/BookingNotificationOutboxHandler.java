@@ -0,0 +1,50 @@
+package com.appointment.notification.service;
+
+import com.appointment.booking.model.Booking;
+import com.appointment.booking.repository.BookingRepository;
+import com.appointment.common.outbox.OutboxEvent;
+import com.appointment.common.outbox.OutboxEventHandler;
+import com.appointment.common.outbox.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Tells the patient about booking status changes over WhatsApp
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingNotificationOutboxHandler implements OutboxEventHandler {
+
+    private final BookingRepository bookingRepository;
+    private final NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "booking-notification";
+    }
+
+    @Override
+    public Set<OutboxEventType> eventTypes() {
+        return Set.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_CONFIRMED,
+                OutboxEventType.BOOKING_CANCELLED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Booking booking = bookingRepository.findById(event.aggregateId()).orElse(null);
+        if (booking == null) {
+            log.warn("Booking {} no longer exists, skipping {} notification", event.aggregateId(), event.type());
+            return;
+        }
+        switch (event.type()) {
+            case BOOKING_CREATED -> notificationService.sendBookingPending(booking);
+            case BOOKING_CONFIRMED -> notificationService.sendBookingConfirmation(booking);
+            case BOOKING_CANCELLED -> notificationService.sendBookingCancellation(booking);
+            default -> log.debug("Ignoring {} for booking {}", event.type(), booking.getId());
+        }
+    }
+}
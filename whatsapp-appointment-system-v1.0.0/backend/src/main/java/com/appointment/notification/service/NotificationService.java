@@ -1,7 +1,12 @@
 package com.appointment.notification.service;
 
+import com.appointment.auth.model.User;
+import com.appointment.auth.repository.UserRepository;
 import com.appointment.booking.model.Booking;
+import com.appointment.booking.repository.BookingReminderRepository.ReminderKind;
 import com.appointment.booking.repository.BookingRepository;
+import com.appointment.booking.service.DoctorDirectory;
+import com.appointment.common.config.SchedulingConfig;
 import com.appointment.payment.model.Invoice;
 import com.appointment.payment.repository.InvoiceRepository;
 import com.appointment.payment.model.Payment;
@@ -12,6 +17,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,77 +26,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class NotificationService {
     
+    private static final String WHATSAPP_PREFIX = "whatsapp:";
+    
     private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final DoctorDirectory doctorDirectory;
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
     private final WhatsAppService whatsAppService;
+    private final ReminderDispatcher reminderDispatcher;
     
     /**
-     * Sends 24-hour reminder for appointments
-     * Runs daily at 9 AM
+     * Sends 24-hour reminders for all of tomorrow's confirmed appointments
+     * Runs daily at 9 AM by default
      */
-    @Scheduled(cron = "0 0 9 * * ?")
+    @Scheduled(cron = "${reminder.day-before.cron:0 0 9 * * ?}", scheduler = SchedulingConfig.BLOCKING_SCHEDULER)
     public void send24HourReminders() {
         log.info("Sending 24-hour appointment reminders");
-        
-        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
-        List<Booking> bookings = bookingRepository.findByDoctorIdAndDateAndStatusIn(
-                1L, // TODO: Get all doctors
-                tomorrow.toLocalDate(),
-                List.of(Booking.BookingStatus.CONFIRMED)
-        );
-        
-        for (Booking booking : bookings) {
-            try {
-                // TODO: Get patient and doctor details
-                whatsAppService.sendReminder(
-                        "whatsapp:+1234567890", // TODO: Get patient WhatsApp
-                        "Patient", // TODO: Get patient name
-                        booking.getStartTime().toString(),
-                        "Dr. Smith", // TODO: Get doctor name
-                        24
-                );
-                log.info("Sent 24h reminder for booking {}", booking.getBookingNumber());
-            } catch (Exception e) {
-                log.error("Error sending 24h reminder for booking {}", booking.getId(), e);
-            }
-        }
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        reminderDispatcher.dispatch(ReminderKind.DAY_BEFORE,
+                tomorrow.atStartOfDay(), tomorrow.plusDays(1).atStartOfDay());
     }
     
     /**
-     * Sends 1-hour reminder for appointments
-     * Runs every hour
+     * Sends 1-hour reminders for confirmed appointments starting within the next hour
+     * Runs every 15 minutes by default; the sent marker keeps reruns from duplicating
      */
-    @Scheduled(cron = "0 0 * * * ?")
+    @Scheduled(cron = "${reminder.hour-before.cron:0 */15 * * * ?}", scheduler = SchedulingConfig.BLOCKING_SCHEDULER)
     public void send1HourReminders() {
         log.info("Sending 1-hour appointment reminders");
-        
-        LocalDateTime oneHourLater = LocalDateTime.now().plusHours(1);
-        List<Booking> bookings = bookingRepository.findByDoctorIdAndDateAndStatusIn(
-                1L, // TODO: Get all doctors
-                oneHourLater.toLocalDate(),
-                List.of(Booking.BookingStatus.CONFIRMED)
-        );
-        
-        for (Booking booking : bookings) {
-            // Check if appointment is within 1 hour
-            if (booking.getStartTime().isBefore(oneHourLater.toLocalTime()) &&
-                booking.getStartTime().isAfter(LocalDateTime.now().toLocalTime())) {
-                try {
-                    // TODO: Get patient and doctor details
-                    whatsAppService.sendReminder(
-                            "whatsapp:+1234567890", // TODO: Get patient WhatsApp
-                            "Patient", // TODO: Get patient name
-                            booking.getStartTime().toString(),
-                            "Dr. Smith", // TODO: Get doctor name
-                            1
-                    );
-                    log.info("Sent 1h reminder for booking {}", booking.getBookingNumber());
-                } catch (Exception e) {
-                    log.error("Error sending 1h reminder for booking {}", booking.getId(), e);
-                }
-            }
-        }
+        LocalDateTime now = LocalDateTime.now();
+        reminderDispatcher.dispatch(ReminderKind.HOUR_BEFORE, now, now.plusHours(1));
     }
     
     /**
@@ -100,13 +66,12 @@ public class NotificationService {
         try {
             Booking booking = bookingRepository.findById(bookingId)
                     .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+            Recipient patient = patientOf(booking);
+            if (patient == null) {
+                return;
+            }
             
-            // TODO: Get patient details
-            whatsAppService.sendPaymentLink(
-                    "whatsapp:+1234567890", // TODO: Get patient WhatsApp
-                    "Patient", // TODO: Get patient name
-                    paymentLink
-            );
+            whatsAppService.sendPaymentLink(patient.phone(), patient.name(), paymentLink);
             
             log.info("Sent payment link for booking {}", bookingId);
         } catch (Exception e) {
@@ -132,12 +97,13 @@ public class NotificationService {
             // TODO: Get invoice PDF URL
             String invoiceUrl = "https://yourapp.com/invoices/" + invoice.getId() + "/pdf";
             
-            // TODO: Get patient details
-            whatsAppService.sendInvoice(
-                    "whatsapp:+1234567890", // TODO: Get patient WhatsApp
-                    "Patient", // TODO: Get patient name
-                    invoiceUrl
-            );
+            Booking booking = bookingRepository.findById(payment.getBookingId())
+                    .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+            Recipient patient = patientOf(booking);
+            if (patient == null) {
+                return;
+            }
+            whatsAppService.sendInvoice(patient.phone(), patient.name(), invoiceUrl);
             
             log.info("Sent invoice for payment {}", paymentId);
         } catch (Exception e) {
@@ -150,13 +116,16 @@ public class NotificationService {
      */
     public void sendBookingConfirmation(Booking booking) {
         try {
-            // TODO: Get patient and doctor details
+            Recipient patient = patientOf(booking);
+            if (patient == null) {
+                return;
+            }
             whatsAppService.sendBookingConfirmation(
-                    "whatsapp:+1234567890", // TODO: Get patient WhatsApp
-                    "Patient", // TODO: Get patient name
+                    patient.phone(),
+                    patient.name(),
                     booking.getBookingDate().toString(),
                     booking.getStartTime().toString(),
-                    "Dr. Smith" // TODO: Get doctor name
+                    doctorName(booking)
             );
             
             log.info("Sent booking confirmation for booking {}", booking.getBookingNumber());
@@ -170,10 +139,13 @@ public class NotificationService {
      */
     public void sendBookingPending(Booking booking) {
         try {
-            // TODO: Get patient details
+            Recipient patient = patientOf(booking);
+            if (patient == null) {
+                return;
+            }
             whatsAppService.sendBookingPending(
-                    "whatsapp:+1234567890", // TODO: Get patient WhatsApp
-                    "Patient", // TODO: Get patient name
+                    patient.phone(),
+                    patient.name(),
                     booking.getBookingDate().toString(),
                     booking.getStartTime().toString()
             );
@@ -183,5 +155,55 @@ public class NotificationService {
             log.error("Error sending booking pending notification for booking {}", booking.getId(), e);
         }
     }
+    
+    /**
+     * Sends booking cancellation notification
+     */
+    public void sendBookingCancellation(Booking booking) {
+        try {
+            Recipient patient = patientOf(booking);
+            if (patient == null) {
+                return;
+            }
+            String message = String.format(
+                    "Hello %s! Your appointment on %s at %s with %s has been cancelled.%s",
+                    patient.name(),
+                    booking.getBookingDate(),
+                    booking.getStartTime(),
+                    doctorName(booking),
+                    booking.getNotes() != null && !booking.getNotes().isBlank() ? " Reason: " + booking.getNotes() : ""
+            );
+            whatsAppService.sendTextMessage(patient.phone(), message);
+            
+            log.info("Sent booking cancellation for booking {}", booking.getBookingNumber());
+        } catch (Exception e) {
+            log.error("Error sending booking cancellation for booking {}", booking.getId(), e);
+        }
+    }
+    
+    private record Recipient(String phone, String name) {}
+    
+    /**
+     * WhatsApp address and name of the booking's patient, or null when there is no number
+     */
+    private Recipient patientOf(Booking booking) {
+        User patient = booking.getPatientId() != null
+                ? userRepository.findById(booking.getPatientId()).orElse(null)
+                : null;
+        String phone = booking.getPatientPhone() != null ? booking.getPatientPhone()
+                : patient != null ? patient.getPhone() : null;
+        if (phone == null || phone.isBlank()) {
+            log.warn("No phone number for booking {}, not notifying patient", booking.getBookingNumber());
+            return null;
+        }
+        String name = booking.getPatientName() != null ? booking.getPatientName()
+                : patient != null && patient.getName() != null ? patient.getName() : "Patient";
+        return new Recipient(phone.startsWith(WHATSAPP_PREFIX) ? phone : WHATSAPP_PREFIX + phone, name);
+    }
+    
+    private String doctorName(Booking booking) {
+        return doctorDirectory.find(booking.getDoctorId())
+                .map(d -> "Dr. " + d.info().getName())
+                .orElse("your doctor");
+    }
 }
-
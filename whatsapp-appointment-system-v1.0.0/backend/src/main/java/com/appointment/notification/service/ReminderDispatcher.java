@@ -0,0 +1,157 @@
+package com.appointment.notification.service;
+
+import com.appointment.auth.model.User;
+import com.appointment.auth.repository.UserRepository;
+import com.appointment.booking.repository.BookingReminderRepository;
+import com.appointment.booking.repository.BookingReminderRepository.ReminderKind;
+import com.appointment.booking.repository.BookingReminderRepository.ReminderTarget;
+import com.appointment.booking.service.DoctorDirectory;
+import com.appointment.whatsapp.dto.MessageResponse;
+import com.appointment.whatsapp.service.WhatsAppService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends appointment reminders for every doctor.
+ * <p>
+ * Due bookings are claimed page by page (keyset over booking_date, start_time, id),
+ * patients are resolved with one bulk lookup per page and doctors from the directory,
+ * and messages are handed to the outbound WhatsApp queue with a bound on undelivered
+ * reminders. The claim marks the booking, so a run can be repeated or executed on
+ * several instances at once without duplicates; a delivery that finally fails clears
+ * the marker again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReminderDispatcher {
+
+    private static final String WHATSAPP_PREFIX = "whatsapp:";
+
+    private final BookingReminderRepository reminderRepository;
+    private final UserRepository userRepository;
+    private final DoctorDirectory doctorDirectory;
+    private final WhatsAppService whatsAppService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${reminder.batch-size:200}")
+    private int batchSize;
+
+    @Value("${reminder.max-in-flight:1000}")
+    private int maxInFlight;
+
+    private Semaphore inFlight;
+
+    @PostConstruct
+    void init() {
+        inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Queues the given reminder for all confirmed bookings starting in {@code [from, until)}
+     * @return Number of reminders queued
+     */
+    public int dispatch(ReminderKind kind, LocalDateTime from, LocalDateTime until) {
+        Counter sentCounter = meterRegistry.counter("reminders.sent", "kind", kind.name());
+        Counter failedCounter = meterRegistry.counter("reminders.failed", "kind", kind.name());
+        int queued = 0;
+
+        // Cursor starts just before the first booking at "from" (ids are positive)
+        LocalDate cursorDate = from.toLocalDate();
+        LocalTime cursorTime = from.toLocalTime();
+        long cursorId = 0L;
+
+        while (true) {
+            List<ReminderTarget> page = reminderRepository.claimNext(
+                    kind, cursorDate, cursorTime, cursorId, until, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            ReminderTarget last = page.get(page.size() - 1);
+            cursorDate = last.bookingDate();
+            cursorTime = last.startTime();
+            cursorId = last.bookingId();
+
+            Map<Long, User> patients = loadPatients(page);
+            for (ReminderTarget target : page) {
+                inFlight.acquireUninterruptibly();
+                CompletableFuture<MessageResponse> delivery = send(kind, target, patients.get(target.patientId()));
+                if (delivery == null) {
+                    inFlight.release();
+                    failedCounter.increment();
+                    continue;
+                }
+                queued++;
+                delivery.whenComplete((response, error) -> {
+                    inFlight.release();
+                    if (error == null && response != null && response.isSuccess()) {
+                        sentCounter.increment();
+                    } else {
+                        failedCounter.increment();
+                        log.warn("{} reminder for booking {} failed: {}", kind, target.bookingNumber(),
+                                error != null ? error.getMessage() : response != null ? response.getErrorMessage() : "no response");
+                        reminderRepository.release(kind, target.bookingId());
+                    }
+                });
+            }
+        }
+
+        log.info("Queued {} {} reminders for appointments between {} and {}", queued, kind, from, until);
+        return queued;
+    }
+
+    private Map<Long, User> loadPatients(List<ReminderTarget> page) {
+        List<Long> patientIds = page.stream()
+                .filter(t -> t.patientPhone() == null || t.patientName() == null)
+                .map(ReminderTarget::patientId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (patientIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findAllById(patientIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    /**
+     * @return The delivery future, or null when the booking has no reachable number
+     */
+    private CompletableFuture<MessageResponse> send(ReminderKind kind, ReminderTarget target, User patient) {
+        String phone = target.patientPhone() != null ? target.patientPhone()
+                : patient != null ? patient.getPhone() : null;
+        if (phone == null || phone.isBlank()) {
+            // Nothing to retry; the marker stays so the booking is not picked up again
+            log.warn("No phone number for booking {}, skipping {} reminder", target.bookingNumber(), kind);
+            return null;
+        }
+        String patientName = target.patientName() != null ? target.patientName()
+                : patient != null && patient.getName() != null ? patient.getName() : "Patient";
+        String doctorName = doctorDirectory.find(target.doctorId())
+                .map(d -> "Dr. " + d.info().getName())
+                .orElse("your doctor");
+
+        return whatsAppService.sendReminderAsync(
+                phone.startsWith(WHATSAPP_PREFIX) ? phone : WHATSAPP_PREFIX + phone,
+                patientName,
+                target.startTime().toString(),
+                doctorName,
+                kind.getHoursBefore());
+    }
+}
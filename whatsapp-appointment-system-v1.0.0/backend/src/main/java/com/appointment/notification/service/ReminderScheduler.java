@@ -1,10 +1,13 @@
 package com.appointment.notification.service;
 
+import com.appointment.booking.service.MetricsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+
 /**
  * Scheduler for appointment reminders and other periodic tasks
  */
@@ -14,14 +17,19 @@ import org.springframework.stereotype.Component;
 public class ReminderScheduler {
     
     private final NotificationService notificationService;
+    private final MetricsService metricsService;
     
     /**
-     * Daily report generation (runs at midnight)
+     * Daily report generation (runs at midnight): reconciles the daily metrics rollup
      */
-    @Scheduled(cron = "0 0 0 * * ?")
+    @Scheduled(cron = "${metrics.rollup.reconcile-cron:0 0 0 * * ?}")
     public void generateDailyReport() {
         log.info("Generating daily report");
-        // TODO: Implement daily report generation
+        try {
+            metricsService.reconcile(LocalDate.now());
+        } catch (Exception e) {
+            log.error("Daily metrics reconciliation failed", e);
+        }
     }
 }
 
@@ -4,18 +4,24 @@ import com.appointment.payment.dto.PaymentLinkRequest;
 import com.appointment.payment.dto.PaymentLinkResponse;
 import com.appointment.payment.model.Invoice;
 import com.appointment.payment.model.Payment;
+import com.appointment.payment.service.InvoiceService;
 import com.appointment.payment.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -64,18 +70,50 @@ public class PaymentController {
     }
     
     @GetMapping("/invoices/{invoiceId}/pdf")
-    @Operation(summary = "Download invoice PDF", description = "Downloads the PDF invoice")
-    public ResponseEntity<byte[]> downloadInvoicePdf(@PathVariable Long invoiceId) {
+    @Operation(summary = "Download invoice PDF", description = "Streams the PDF invoice; supports conditional and Range requests")
+    public ResponseEntity<Resource> downloadInvoicePdf(@PathVariable Long invoiceId, WebRequest webRequest) {
+        InvoiceService.InvoicePdf pdf;
         try {
-            byte[] pdfBytes = paymentService.getInvoicePdf(invoiceId);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "invoice-" + invoiceId + ".pdf");
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            log.error("Error downloading invoice PDF", e);
+            pdf = paymentService.getInvoicePdf(invoiceId);
+        } catch (IllegalArgumentException | IllegalStateException | IOException e) {
+            log.error("Error downloading invoice PDF {}: {}", invoiceId, e.getMessage());
             return ResponseEntity.notFound().build();
         }
+        return pdfResponse(pdf, "invoice-" + invoiceId + ".pdf", webRequest);
+    }
+    
+    @GetMapping("/invoices/files/{key}")
+    @Operation(summary = "Download invoice PDF by key", description = "Streams a stored invoice by its content key without a database lookup")
+    public ResponseEntity<Resource> downloadStoredInvoicePdf(@PathVariable String key, WebRequest webRequest) {
+        InvoiceService.InvoicePdf pdf;
+        try {
+            pdf = paymentService.getStoredInvoicePdf(key);
+        } catch (IllegalStateException | IOException e) {
+            log.error("Error downloading stored invoice PDF {}: {}", key, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+        return pdfResponse(pdf, "invoice-" + key.substring(0, 12) + ".pdf", webRequest);
+    }
+    
+    private static ResponseEntity<Resource> pdfResponse(InvoiceService.InvoicePdf pdf, String filename, WebRequest webRequest) {
+        if (webRequest.checkNotModified(pdf.etag(), pdf.lastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(pdf.etag())
+                    .lastModified(pdf.lastModified())
+                    .build();
+        }
+        // The content is streamed by the resource converters: Content-Length comes from the
+        // known size, and a Range header is answered with 206 and only the requested bytes
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .eTag(pdf.etag())
+                .lastModified(pdf.lastModified())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename)
+                        .build()
+                        .toString())
+                .body(pdf.content());
     }
 }
 
@@ -1,8 +1,9 @@
 package com.appointment.payment.controller;
 
 import com.appointment.payment.dto.WebhookPayload;
+import com.appointment.payment.repository.WebhookInboxRepository;
 import com.appointment.payment.service.PaymentProvider;
-import com.appointment.payment.service.PaymentService;
+import com.appointment.payment.service.WebhookDeduplicator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,8 +17,9 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class PaymentWebhookController {
     
-    private final PaymentService paymentService;
+    private final WebhookInboxRepository inboxRepository;
     private final PaymentProvider paymentProvider;
+    private final WebhookDeduplicator webhookDeduplicator;
     
     @Value("${payment.razorpay.webhook-secret:}")
     private String webhookSecret;
@@ -25,7 +27,8 @@ public class PaymentWebhookController {
     @PostMapping("/razorpay")
     public ResponseEntity<String> handleRazorpayWebhook(
             @RequestBody String payload,
-            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature) {
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String deliveredEventId) {
         
         log.info("Received Razorpay webhook");
         
@@ -35,18 +38,38 @@ public class PaymentWebhookController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid signature");
         }
         
+        // Retries of an event this instance already applied are acknowledged straight away
+        String provider = paymentProvider.getProviderName();
+        String eventId = WebhookDeduplicator.eventId(deliveredEventId, payload);
+        if (webhookDeduplicator.isKnownDuplicate(provider, eventId)) {
+            return ResponseEntity.ok("Webhook already processed");
+        }
+        
+        // Stored as received and applied by the inbox worker; only a failed insert makes the provider retry
         try {
-            // Process webhook
-            WebhookPayload webhookPayload = paymentProvider.processWebhook(payload);
-            if (webhookPayload != null) {
-                paymentService.processWebhook(webhookPayload);
-            }
-            
-            return ResponseEntity.ok("Webhook processed successfully");
+            inboxRepository.append(provider, eventId, paymentKey(payload), payload);
+            return ResponseEntity.ok("Webhook received");
         } catch (Exception e) {
-            log.error("Error processing webhook", e);
+            log.error("Error storing webhook {}", eventId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error processing webhook: " + e.getMessage());
+                    .body("Error storing webhook");
+        }
+    }
+    
+    /**
+     * The payment the webhook belongs to, used to apply a payment's events in order
+     */
+    private String paymentKey(String payload) {
+        try {
+            WebhookPayload webhookPayload = paymentProvider.processWebhook(payload);
+            if (webhookPayload == null) {
+                return null;
+            }
+            return webhookPayload.getPaymentLinkId() != null
+                    ? webhookPayload.getPaymentLinkId() : webhookPayload.getProviderPaymentId();
+        } catch (RuntimeException e) {
+            // Stored anyway: the worker retries it and finally parks it for inspection
+            return null;
         }
     }
 }
@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class WebhookPayload {
+    private String eventId;
     private String event;
     private String providerPaymentId;
     private String providerOrderId;
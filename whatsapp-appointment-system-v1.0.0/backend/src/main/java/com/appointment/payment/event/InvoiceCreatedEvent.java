@@ -0,0 +1,6 @@
+package com.appointment.payment.event;
+
+/**
+ * Published when an invoice row has been stored and its PDF still needs rendering
+ */
+public record InvoiceCreatedEvent(Long invoiceId) {}
@@ -0,0 +1,6 @@
+package com.appointment.payment.event;
+
+/**
+ * Published when a provider webhook event has been recorded as applied
+ */
+public record WebhookEventAppliedEvent(String provider, String eventId) {}
@@ -49,6 +49,7 @@ public class Invoice {
     @Builder.Default
     private String currency = "INR";
 
+    // Invoice store key; an absolute file path for invoices rendered before the store existed
     @Column(name = "pdf_path")
     private String pdfPath;
 
@@ -1,9 +1,14 @@
 package com.appointment.payment.repository;
 
 import com.appointment.payment.model.Invoice;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,5 +21,18 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findByPatientId(Long patientId);
     
     List<Invoice> findByPaymentId(Long paymentId);
+
+    /**
+     * Invoices whose PDF was never attached, oldest first
+     */
+    @Query("SELECT i.id FROM Invoice i WHERE i.pdfPath IS NULL AND i.createdAt < :before ORDER BY i.id")
+    List<Long> findUnrenderedIds(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Attaches the rendered PDF unless another render got there first
+     */
+    @Modifying
+    @Query("UPDATE Invoice i SET i.pdfPath = :pdfPath WHERE i.id = :invoiceId AND i.pdfPath IS NULL")
+    int attachPdf(@Param("invoiceId") Long invoiceId, @Param("pdfPath") String pdfPath);
 }
 
@@ -2,7 +2,11 @@ package com.appointment.payment.repository;
 
 import com.appointment.payment.model.Payment;
 import com.appointment.payment.model.PaymentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,5 +25,16 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByStatus(PaymentStatus status);
     
     List<Payment> findByBookingIdAndStatus(Long bookingId, PaymentStatus status);
+    
+    /**
+     * Webhook lookups lock the payment so events for it are applied one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.paymentLinkId = :paymentLinkId")
+    Optional<Payment> findByPaymentLinkIdForUpdate(@Param("paymentLinkId") String paymentLinkId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.providerPaymentId = :providerPaymentId")
+    Optional<Payment> findByProviderPaymentIdForUpdate(@Param("providerPaymentId") String providerPaymentId);
 }
 
@@ -0,0 +1,33 @@
+package com.appointment.payment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Provider webhook events that have been applied, keyed by (provider, event id)
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookEventRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the event in the caller's transaction. A concurrent insert of the same
+     * event waits for the other transaction and only succeeds if that one rolled back.
+     * @return false if the event was already recorded
+     */
+    public boolean insertIfAbsent(String provider, String eventId) {
+        return jdbcTemplate.update(
+                "INSERT INTO payment_webhook_events (provider, event_id) VALUES (?, ?) " +
+                "ON CONFLICT (provider, event_id) DO NOTHING",
+                provider, eventId) == 1;
+    }
+
+    public int deleteReceivedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM payment_webhook_events WHERE received_at < ?", before);
+    }
+}
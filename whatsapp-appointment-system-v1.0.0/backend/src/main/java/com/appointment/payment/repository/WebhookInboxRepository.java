@@ -0,0 +1,101 @@
+package com.appointment.payment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Storage for received payment webhooks.
+ * Claims use FOR UPDATE SKIP LOCKED and push {@code available_at} out by a lease, like
+ * the outbox, so several workers can drain the inbox side by side.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookInboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A claimed webhook
+     * @param paymentKey Payment link or provider payment id, null if the payload had neither
+     */
+    public record InboxEntry(Long id, String provider, String eventId, String paymentKey, String payload, int attempts) {}
+
+    /**
+     * Stores a received webhook in a single statement
+     * @return false if the event was already in the inbox
+     */
+    public boolean append(String provider, String eventId, String paymentKey, String payload) {
+        return jdbcTemplate.update(
+                "INSERT INTO payment_webhook_inbox (provider, event_id, payment_key, payload) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (provider, event_id) DO NOTHING",
+                provider, eventId, paymentKey, payload) == 1;
+    }
+
+    /**
+     * Claims due webhooks in arrival order. A webhook is held back while an older one for
+     * the same payment is still pending, so at most one event per payment is in flight
+     * and a payment's events are applied in the order they arrived.
+     * @param leaseSeconds How long the claim hides the webhooks from other workers
+     */
+    public List<InboxEntry> claimDue(int limit, int leaseSeconds) {
+        String sql =
+                "WITH due AS (" +
+                "  SELECT w.id FROM payment_webhook_inbox w" +
+                "  WHERE w.status = 'PENDING' AND w.available_at <= now()" +
+                "    AND NOT EXISTS (SELECT 1 FROM payment_webhook_inbox p" +
+                "      WHERE p.status = 'PENDING' AND p.payment_key = w.payment_key AND p.id < w.id)" +
+                "  ORDER BY w.id" +
+                "  LIMIT ?" +
+                "  FOR UPDATE SKIP LOCKED" +
+                ") " +
+                "UPDATE payment_webhook_inbox e SET attempts = e.attempts + 1, " +
+                "available_at = now() + make_interval(secs => ?) " +
+                "FROM due WHERE e.id = due.id " +
+                "RETURNING e.id, e.provider, e.event_id, e.payment_key, e.payload, e.attempts";
+        List<InboxEntry> claimed = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new InboxEntry(
+                        rs.getLong("id"),
+                        rs.getString("provider"),
+                        rs.getString("event_id"),
+                        rs.getString("payment_key"),
+                        rs.getString("payload"),
+                        rs.getInt("attempts")),
+                limit, leaseSeconds);
+        // RETURNING does not keep the CTE order
+        return claimed.stream().sorted(Comparator.comparing(InboxEntry::id)).toList();
+    }
+
+    /**
+     * Joins the caller's transaction, so it commits together with the payment change
+     */
+    public void markProcessed(Long id) {
+        jdbcTemplate.update(
+                "UPDATE payment_webhook_inbox SET status = 'PROCESSED', processed_at = now(), last_error = NULL WHERE id = ?",
+                id);
+    }
+
+    /**
+     * Records a failed attempt; the webhook is retried after the delay or, when
+     * {@code giveUp} is set, parked as FAILED for manual inspection
+     */
+    public void markFailed(Long id, String error, long retryDelaySeconds, boolean giveUp) {
+        jdbcTemplate.update(
+                "UPDATE payment_webhook_inbox SET status = ?, last_error = ?, " +
+                "available_at = now() + make_interval(secs => ?) WHERE id = ?",
+                giveUp ? "FAILED" : "PENDING", error, retryDelaySeconds, id);
+    }
+
+    /**
+     * @return Number of processed webhooks deleted
+     */
+    public int deleteProcessedBefore(int retentionDays) {
+        return jdbcTemplate.update(
+                "DELETE FROM payment_webhook_inbox WHERE status = 'PROCESSED' " +
+                "AND processed_at < now() - make_interval(days => ?)",
+                retentionDays);
+    }
+}
@@ -0,0 +1,42 @@
+package com.appointment.payment.service;
+
+import com.appointment.common.outbox.OutboxEvent;
+import com.appointment.common.outbox.OutboxEventHandler;
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.notification.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Creates the invoice for a successful payment, and sends it to the patient once its PDF is ready
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceOutboxHandler implements OutboxEventHandler {
+
+    private final PaymentService paymentService;
+    private final NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "invoice";
+    }
+
+    @Override
+    public Set<OutboxEventType> eventTypes() {
+        return Set.of(OutboxEventType.PAYMENT_SUCCEEDED, OutboxEventType.INVOICE_READY);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        if (event.type() == OutboxEventType.PAYMENT_SUCCEEDED) {
+            // Stores the invoice; rendering is queued and ends with INVOICE_READY
+            paymentService.generateInvoice(event.aggregateId());
+            return;
+        }
+        paymentService.getInvoice(event.aggregateId())
+                .ifPresent(invoice -> notificationService.sendInvoiceNotification(invoice.getPaymentId()));
+    }
+}
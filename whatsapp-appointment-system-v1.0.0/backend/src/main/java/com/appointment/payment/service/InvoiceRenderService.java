@@ -0,0 +1,147 @@
+package com.appointment.payment.service;
+
+import com.appointment.payment.event.InvoiceCreatedEvent;
+import com.appointment.payment.model.Invoice;
+import com.appointment.payment.model.Payment;
+import com.appointment.payment.repository.InvoiceRepository;
+import com.appointment.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders invoice PDFs on a bounded worker pool, separate from payment processing.
+ * <p>
+ * Invoices are stored without a PDF and queued here once committed. A worker renders
+ * and stores the file without holding a database connection, then attaches its key in a short
+ * transaction that also queues the patient notification. Invoices that were never
+ * rendered (queue full, render failure, restart) are picked up again by a periodic sweep.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceRenderService {
+
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final InvoiceService invoiceService;
+    private final PdfInvoiceGenerator pdfInvoiceGenerator;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 0 means one worker per available processor
+     */
+    @Value("${invoice.render.workers:0}")
+    private int workers;
+
+    @Value("${invoice.render.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${invoice.render.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${invoice.render.sweep-grace-seconds:120}")
+    private long sweepGraceSeconds;
+
+    private ThreadPoolExecutor pool;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private Timer renderTimer;
+
+    @PostConstruct
+    void start() {
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("invoice-render-"));
+        renderTimer = Timer.builder("invoice.render.duration")
+                .description("Time to render one invoice PDF")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("invoice.render.queue.size", this, s -> s.pool.getQueue().size())
+                .description("Invoices waiting for a renderer")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceCreated(InvoiceCreatedEvent event) {
+        submit(event.invoiceId());
+    }
+
+    /**
+     * Queues an invoice for rendering
+     * @return false if it is already queued or the queue is full (the sweep retries it later)
+     */
+    public boolean submit(Long invoiceId) {
+        if (!queued.add(invoiceId)) {
+            return false;
+        }
+        try {
+            pool.execute(() -> render(invoiceId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(invoiceId);
+            log.warn("Invoice render queue full, invoice {} left for the sweep", invoiceId);
+            return false;
+        }
+    }
+
+    private void render(Long invoiceId) {
+        try {
+            Invoice invoice = invoiceRepository.findById(invoiceId).orElse(null);
+            if (invoice == null || invoice.getPdfPath() != null) {
+                return;
+            }
+            Payment payment = paymentRepository.findById(invoice.getPaymentId())
+                    .orElseThrow(() -> new IllegalStateException("Payment not found: " + invoice.getPaymentId()));
+            String pdfKey = renderTimer.recordCallable(() -> pdfInvoiceGenerator.generatePdf(invoice, payment));
+            if (invoiceService.attachPdf(invoiceId, pdfKey)) {
+                log.info("PDF invoice {} stored as {}", invoice.getInvoiceNumber(), pdfKey);
+            }
+        } catch (Exception e) {
+            log.error("Rendering invoice {} failed, the sweep will retry", invoiceId, e);
+        } finally {
+            queued.remove(invoiceId);
+        }
+    }
+
+    /**
+     * Re-queues invoices that were stored but never got a PDF
+     */
+    @Scheduled(initialDelayString = "${invoice.render.sweep-interval-ms:60000}",
+               fixedDelayString = "${invoice.render.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<Long> unrendered = invoiceRepository.findUnrenderedIds(
+                LocalDateTime.now().minusSeconds(sweepGraceSeconds), PageRequest.of(0, sweepBatchSize));
+        long submitted = unrendered.stream().filter(this::submit).count();
+        if (submitted > 0) {
+            log.info("Re-queued {} unrendered invoices", submitted);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Whatever is left is rendered by the sweep after the next start
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.appointment.payment.service;
+
+import com.appointment.payment.model.Invoice;
+import com.appointment.payment.model.Payment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Produces the PDF document for an invoice.
+ * Selected with {@code invoice.render.renderer} (template or layout); implementations are thread safe.
+ */
+public interface InvoiceRenderer {
+
+    /**
+     * Writes the complete PDF to {@code out}; the stream is left open
+     */
+    void render(Invoice invoice, Payment payment, OutputStream out) throws IOException;
+}
@@ -1,11 +1,18 @@
 package com.appointment.payment.service;
 
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.common.outbox.OutboxService;
+import com.appointment.payment.event.InvoiceCreatedEvent;
 import com.appointment.payment.model.Invoice;
 import com.appointment.payment.model.Payment;
 import com.appointment.payment.repository.InvoiceRepository;
+import com.appointment.payment.storage.InvoiceStore;
+import com.appointment.payment.storage.StoredInvoice;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +21,8 @@ import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
@@ -24,10 +33,9 @@ import java.util.UUID;
 public class InvoiceService {
     
     private final InvoiceRepository invoiceRepository;
-    private final PdfInvoiceGenerator pdfInvoiceGenerator;
-    
-    @Value("${invoice.storage.path:./invoices}")
-    private String invoiceStoragePath;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvoiceStore invoiceStore;
     
     @Transactional
     public Invoice generateInvoice(Payment payment) {
@@ -56,20 +64,23 @@ public class InvoiceService {
                 .build();
         
         invoice = invoiceRepository.save(invoice);
-        
-        // Generate PDF
-        try {
-            String pdfPath = pdfInvoiceGenerator.generatePdf(invoice, payment);
-            invoice.setPdfPath(pdfPath);
-            invoiceRepository.save(invoice);
-            log.info("PDF invoice generated: {}", pdfPath);
-        } catch (Exception e) {
-            log.error("Error generating PDF invoice", e);
-            throw new RuntimeException("Failed to generate PDF invoice", e);
-        }
-        
+        // The PDF is rendered off this thread once the row is committed
+        eventPublisher.publishEvent(new InvoiceCreatedEvent(invoice.getId()));
         return invoice;
     }
+
+    /**
+     * Records the store key of the rendered PDF on the invoice and queues the patient notification
+     * @return false if the invoice already had a PDF
+     */
+    @Transactional
+    public boolean attachPdf(Long invoiceId, String pdfKey) {
+        if (invoiceRepository.attachPdf(invoiceId, pdfKey) == 0) {
+            return false;
+        }
+        outboxService.append(OutboxEventType.INVOICE_READY, invoiceId);
+        return true;
+    }
     
     private String generateInvoiceNumber() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
@@ -77,19 +88,43 @@ public class InvoiceService {
         return "INV-" + timestamp + "-" + uniqueId;
     }
     
-    public byte[] getInvoicePdf(Long invoiceId) throws IOException {
+    /**
+     * A rendered invoice PDF, described without reading its content
+     * @param etag Strong validator: the content key, or for files written before the invoice
+     *             store, derived from the invoice id, size and modification time
+     */
+    public record InvoicePdf(Resource content, long size, Instant lastModified, String etag) {}
+
+    public InvoicePdf getInvoicePdf(Long invoiceId) throws IOException {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
         
         if (invoice.getPdfPath() == null) {
             throw new IllegalStateException("PDF not generated for this invoice");
         }
+        if (InvoiceStore.isKey(invoice.getPdfPath())) {
+            return getStoredPdf(invoice.getPdfPath());
+        }
         
+        // Invoices rendered before the invoice store keep their absolute file path
         Path pdfPath = Paths.get(invoice.getPdfPath());
         if (!Files.exists(pdfPath)) {
             throw new IllegalStateException("PDF file not found");
         }
         
-        return Files.readAllBytes(pdfPath);
+        BasicFileAttributes attributes = Files.readAttributes(pdfPath, BasicFileAttributes.class);
+        Instant lastModified = attributes.lastModifiedTime().toInstant();
+        String etag = "\"" + invoiceId + "-" + Long.toHexString(attributes.size())
+                + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        return new InvoicePdf(new FileSystemResource(pdfPath), attributes.size(), lastModified, etag);
+    }
+
+    /**
+     * Looks a PDF up by its store key alone, without touching the database
+     */
+    public InvoicePdf getStoredPdf(String key) throws IOException {
+        StoredInvoice stored = invoiceStore.find(key)
+                .orElseThrow(() -> new IllegalStateException("PDF file not found"));
+        return new InvoicePdf(stored.content(), stored.size(), stored.lastModified(), stored.etag());
     }
 }
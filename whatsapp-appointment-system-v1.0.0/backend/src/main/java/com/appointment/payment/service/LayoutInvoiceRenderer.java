@@ -0,0 +1,143 @@
+package com.appointment.payment.service;
+
+import com.appointment.payment.model.Invoice;
+import com.appointment.payment.model.Payment;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Builds every invoice from scratch with the iText layout engine (paragraphs and a table).
+ * Kept as the reference rendering and for comparison in benchmarks.
+ */
+@Component
+@ConditionalOnProperty(name = "invoice.render.renderer", havingValue = "layout")
+public class LayoutInvoiceRenderer implements InvoiceRenderer {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+
+    public LayoutInvoiceRenderer() throws IOException {
+        regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+    }
+
+    @Override
+    public void render(Invoice invoice, Payment payment, OutputStream out) throws IOException {
+        try (PdfWriter writer = new PdfWriter(out);
+             PdfDocument pdf = new PdfDocument(writer);
+             Document document = new Document(pdf)) {
+
+            writer.setCloseStream(false);
+            PdfFont bold = PdfFontFactory.createFont(boldFontProgram, PdfEncodings.WINANSI);
+            document.setFont(PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI));
+            
+            // Header
+            Paragraph header = new Paragraph("INVOICE")
+                    .setFontSize(24)
+                    .setFont(bold)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(20);
+            document.add(header);
+            
+            // Invoice details
+            Paragraph invoiceNumber = new Paragraph("Invoice Number: " + invoice.getInvoiceNumber())
+                    .setFontSize(12)
+                    .setMarginBottom(5);
+            document.add(invoiceNumber);
+            
+            Paragraph date = new Paragraph("Date: " + invoice.getIssuedAt()
+                    .format(DATE))
+                    .setFontSize(12)
+                    .setMarginBottom(20);
+            document.add(date);
+            
+            // Patient and Doctor info (simplified - should fetch from DB)
+            Paragraph patientInfo = new Paragraph("Bill To:\nPatient ID: " + invoice.getPatientId())
+                    .setFontSize(10)
+                    .setMarginBottom(10);
+            document.add(patientInfo);
+            
+            Paragraph doctorInfo = new Paragraph("Service Provider:\nDoctor ID: " + invoice.getDoctorId())
+                    .setFontSize(10)
+                    .setMarginBottom(20);
+            document.add(doctorInfo);
+            
+            // Items table
+            Table table = new Table(UnitValue.createPercentArray(new float[]{3, 1, 1, 1}))
+                    .useAllAvailableWidth()
+                    .setMarginBottom(20);
+            
+            // Table header
+            table.addHeaderCell(new Paragraph("Description").setFont(bold));
+            table.addHeaderCell(new Paragraph("Quantity").setFont(bold).setTextAlignment(TextAlignment.CENTER));
+            table.addHeaderCell(new Paragraph("Rate").setFont(bold).setTextAlignment(TextAlignment.RIGHT));
+            table.addHeaderCell(new Paragraph("Amount").setFont(bold).setTextAlignment(TextAlignment.RIGHT));
+            
+            // Table data
+            table.addCell(new Paragraph("Consultation Fee"));
+            table.addCell(new Paragraph("1").setTextAlignment(TextAlignment.CENTER));
+            table.addCell(new Paragraph(invoice.getAmount().toString()).setTextAlignment(TextAlignment.RIGHT));
+            table.addCell(new Paragraph(invoice.getAmount().toString()).setTextAlignment(TextAlignment.RIGHT));
+            
+            document.add(table);
+            
+            // Totals
+            Paragraph subtotal = new Paragraph("Subtotal: " + invoice.getAmount() + " " + invoice.getCurrency())
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .setMarginBottom(5);
+            document.add(subtotal);
+            
+            Paragraph tax = new Paragraph("Tax (18%): " + invoice.getTaxAmount() + " " + invoice.getCurrency())
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .setMarginBottom(5);
+            document.add(tax);
+            
+            Paragraph total = new Paragraph("Total: " + invoice.getTotalAmount() + " " + invoice.getCurrency())
+                    .setTextAlignment(TextAlignment.RIGHT)
+                    .setFont(bold)
+                    .setFontSize(14)
+                    .setMarginBottom(20);
+            document.add(total);
+            
+            // Payment info
+            Paragraph paymentInfo = new Paragraph("Payment Status: " + payment.getStatus())
+                    .setFontSize(10)
+                    .setMarginTop(20);
+            document.add(paymentInfo);
+            
+            if (payment.getPaidAt() != null) {
+                Paragraph paidDate = new Paragraph("Paid On: " + payment.getPaidAt()
+                        .format(DATE_TIME))
+                        .setFontSize(10);
+                document.add(paidDate);
+            }
+            
+            // Footer
+            Paragraph footer = new Paragraph("Thank you for your business!")
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setFontSize(10)
+                    .setMarginTop(30);
+            document.add(footer);
+        }
+    }
+}
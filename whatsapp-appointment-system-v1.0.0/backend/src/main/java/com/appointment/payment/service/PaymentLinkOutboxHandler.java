@@ -0,0 +1,76 @@
+package com.appointment.payment.service;
+
+import com.appointment.booking.model.Booking;
+import com.appointment.booking.repository.BookingRepository;
+import com.appointment.common.outbox.OutboxEvent;
+import com.appointment.common.outbox.OutboxEventHandler;
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.notification.service.NotificationService;
+import com.appointment.payment.dto.PaymentLinkRequest;
+import com.appointment.payment.model.Payment;
+import com.appointment.payment.model.PaymentStatus;
+import com.appointment.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Creates the payment link for a confirmed booking and sends it to the patient.
+ * A pending payment from an earlier attempt is reused, so retries do not create a
+ * second link at the provider.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentLinkOutboxHandler implements OutboxEventHandler {
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final NotificationService notificationService;
+
+    @Override
+    public String name() {
+        return "payment-link";
+    }
+
+    @Override
+    public Set<OutboxEventType> eventTypes() {
+        return Set.of(OutboxEventType.BOOKING_CONFIRMED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Booking booking = bookingRepository.findById(event.aggregateId()).orElse(null);
+        if (booking == null) {
+            log.warn("Booking {} no longer exists, skipping payment link", event.aggregateId());
+            return;
+        }
+        if (!Boolean.TRUE.equals(booking.getRequiresPayment())
+                || !paymentRepository.findByBookingIdAndStatus(booking.getId(), PaymentStatus.SUCCESS).isEmpty()) {
+            return;
+        }
+
+        String paymentLink = paymentRepository.findByBookingIdAndStatus(booking.getId(), PaymentStatus.PENDING).stream()
+                .map(Payment::getPaymentLink)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseGet(() -> paymentService.createPaymentLink(PaymentLinkRequest.builder()
+                        .bookingId(booking.getId())
+                        .patientId(booking.getPatientId())
+                        .amount(BigDecimal.valueOf(500.00))
+                        .currency("INR")
+                        .description("Consultation fee for booking " + booking.getBookingNumber())
+                        .customerName(booking.getPatientName())
+                        .customerPhone(booking.getPatientPhone())
+                        .build())
+                        .getPaymentLink());
+
+        bookingRepository.updatePaymentLinkUrl(booking.getId(), paymentLink);
+        notificationService.sendPaymentLinkNotification(booking.getId(), paymentLink);
+    }
+}
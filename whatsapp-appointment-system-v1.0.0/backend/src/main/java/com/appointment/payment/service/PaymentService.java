@@ -1,5 +1,7 @@
 package com.appointment.payment.service;
 
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.common.outbox.OutboxService;
 import com.appointment.payment.dto.PaymentLinkRequest;
 import com.appointment.payment.dto.PaymentLinkResponse;
 import com.appointment.payment.dto.WebhookPayload;
@@ -30,6 +32,8 @@ public class PaymentService {
     private final InvoiceRepository invoiceRepository;
     private final PaymentProvider paymentProvider;
     private final InvoiceService invoiceService;
+    private final OutboxService outboxService;
+    private final WebhookDeduplicator webhookDeduplicator;
     
     @Value("${payment.default-provider:RAZORPAY}")
     private String defaultProvider;
@@ -72,20 +76,34 @@ public class PaymentService {
         }
     }
     
+    /**
+     * Applies a webhook event to its payment.
+     * <p>
+     * Redelivered events (same event id) are ignored. The payment row is locked, so
+     * concurrent events for one payment are applied one after the other, and an event
+     * never moves a payment back to an earlier status, so late or reordered deliveries
+     * cannot undo a newer one.
+     */
     @Transactional
     public void processWebhook(WebhookPayload webhookPayload) {
         log.info("Processing webhook for payment: {}", webhookPayload.getProviderPaymentId());
         
+        if (webhookPayload.getEventId() != null
+                && !webhookDeduplicator.claim(paymentProvider.getProviderName(), webhookPayload.getEventId())) {
+            log.info("Webhook event {} already processed", webhookPayload.getEventId());
+            return;
+        }
+        
         Optional<Payment> paymentOpt = Optional.empty();
         
         // Try to find by payment link ID first
         if (webhookPayload.getPaymentLinkId() != null) {
-            paymentOpt = paymentRepository.findByPaymentLinkId(webhookPayload.getPaymentLinkId());
+            paymentOpt = paymentRepository.findByPaymentLinkIdForUpdate(webhookPayload.getPaymentLinkId());
         }
         
         // If not found, try by provider payment ID
         if (paymentOpt.isEmpty() && webhookPayload.getProviderPaymentId() != null) {
-            paymentOpt = paymentRepository.findByProviderPaymentId(webhookPayload.getProviderPaymentId());
+            paymentOpt = paymentRepository.findByProviderPaymentIdForUpdate(webhookPayload.getProviderPaymentId());
         }
         
         if (paymentOpt.isEmpty()) {
@@ -94,11 +112,19 @@ public class PaymentService {
         }
         
         Payment payment = paymentOpt.get();
+        PaymentStatus previousStatus = payment.getStatus();
         
         // Update payment status
         PaymentStatus newStatus = mapWebhookStatus(webhookPayload.getStatus());
+        if (statusRank(newStatus) < statusRank(previousStatus)) {
+            log.info("Ignoring out-of-order webhook for payment {}: {} after {}",
+                    payment.getId(), newStatus, previousStatus);
+            return;
+        }
         payment.setStatus(newStatus);
-        payment.setProviderPaymentId(webhookPayload.getProviderPaymentId());
+        if (webhookPayload.getProviderPaymentId() != null) {
+            payment.setProviderPaymentId(webhookPayload.getProviderPaymentId());
+        }
         
         if (newStatus == PaymentStatus.SUCCESS && webhookPayload.getPaidAt() != null) {
             payment.setPaidAt(webhookPayload.getPaidAt());
@@ -115,15 +141,29 @@ public class PaymentService {
         
         paymentRepository.save(payment);
         
-        // Generate invoice if payment is successful
-        if (newStatus == PaymentStatus.SUCCESS) {
-            generateInvoice(payment);
+        // Invoice is generated by the outbox relay; repeated webhooks do not add events
+        if (newStatus == PaymentStatus.SUCCESS && previousStatus != PaymentStatus.SUCCESS) {
+            outboxService.append(OutboxEventType.PAYMENT_SUCCEEDED, payment.getId());
         }
         
         log.info("Payment webhook processed successfully. Payment ID: {}, Status: {}", 
                 payment.getId(), newStatus);
     }
     
+    /**
+     * Position in the payment lifecycle; failed and cancelled share a rank so a later
+     * attempt on the same link can still succeed
+     */
+    private static int statusRank(PaymentStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case PROCESSING -> 1;
+            case FAILED, CANCELLED -> 2;
+            case SUCCESS -> 3;
+            case REFUNDED -> 4;
+        };
+    }
+    
     private PaymentStatus mapWebhookStatus(String status) {
         return switch (status.toUpperCase()) {
             case "SUCCESS", "PAID", "CAPTURED" -> PaymentStatus.SUCCESS;
@@ -134,20 +174,22 @@ public class PaymentService {
         };
     }
     
-    private void generateInvoice(Payment payment) {
-        try {
-            // Check if invoice already exists
-            List<Invoice> existingInvoices = invoiceRepository.findByPaymentId(payment.getId());
-            if (!existingInvoices.isEmpty()) {
-                log.info("Invoice already exists for payment: {}", payment.getId());
-                return;
-            }
-            
-            invoiceService.generateInvoice(payment);
-            log.info("Invoice generated for payment: {}", payment.getId());
-        } catch (Exception e) {
-            log.error("Error generating invoice for payment: {}", payment.getId(), e);
+    /**
+     * Generates the invoice for a payment unless one exists already
+     */
+    public void generateInvoice(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+        
+        // Check if invoice already exists
+        List<Invoice> existingInvoices = invoiceRepository.findByPaymentId(payment.getId());
+        if (!existingInvoices.isEmpty()) {
+            log.info("Invoice already exists for payment: {}", payment.getId());
+            return;
         }
+        
+        invoiceService.generateInvoice(payment);
+        log.info("Invoice generated for payment: {}", payment.getId());
     }
     
     public Optional<Payment> getPayment(Long paymentId) {
@@ -170,8 +212,12 @@ public class PaymentService {
         return invoiceRepository.findByBookingId(bookingId);
     }
     
-    public byte[] getInvoicePdf(Long invoiceId) throws IOException {
+    public InvoiceService.InvoicePdf getInvoicePdf(Long invoiceId) throws IOException {
         return invoiceService.getInvoicePdf(invoiceId);
     }
+    
+    public InvoiceService.InvoicePdf getStoredInvoicePdf(String key) throws IOException {
+        return invoiceService.getStoredPdf(key);
+    }
 }
 
@@ -0,0 +1,197 @@
+package com.appointment.payment.service;
+
+import com.appointment.payment.model.Invoice;
+import com.appointment.payment.model.Payment;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renders invoices by stamping their variable fields onto a precompiled page.
+ * <p>
+ * Everything that is the same on every invoice (title, labels, table grid and header,
+ * footer) is drawn once at startup into a template PDF kept as bytes. Each invoice
+ * opens that template and writes only its values at fixed positions with plain text
+ * operators, skipping the layout engine entirely. Right-aligned values are placed
+ * using the font metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "invoice.render.renderer", havingValue = "template", matchIfMissing = true)
+public class TemplateInvoiceRenderer implements InvoiceRenderer {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+    private static final PageSize PAGE = PageSize.A4;
+    private static final float LEFT = 36;
+    private static final float RIGHT = PAGE.getWidth() - 36;
+    private static final float CELL_PADDING = 4;
+
+    // Baselines, top to bottom
+    private static final float TITLE_Y = 780;
+    private static final float INVOICE_NUMBER_Y = 745;
+    private static final float DATE_Y = 728;
+    private static final float BILL_TO_Y = 700;
+    private static final float PATIENT_Y = 687;
+    private static final float PROVIDER_Y = 662;
+    private static final float DOCTOR_Y = 649;
+    private static final float TABLE_TOP = 625;
+    private static final float ROW_HEIGHT = 22;
+    private static final float SUBTOTAL_Y = 555;
+    private static final float TAX_Y = 538;
+    private static final float TOTAL_Y = 518;
+    private static final float PAYMENT_STATUS_Y = 485;
+    private static final float PAID_ON_Y = 472;
+    private static final float FOOTER_Y = 430;
+
+    // Table columns, 3:1:1:1 of the content width
+    private static final float[] COLUMN_EDGES = columnEdges();
+
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+    private final byte[] template;
+
+    // Where values start after their labels
+    private final float invoiceNumberX;
+    private final float dateX;
+    private final float patientX;
+    private final float doctorX;
+    private final float paymentStatusX;
+
+    public TemplateInvoiceRenderer() throws IOException {
+        regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+
+        PdfFont regular = PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI);
+        invoiceNumberX = LEFT + regular.getWidth("Invoice Number: ", 12);
+        dateX = LEFT + regular.getWidth("Date: ", 12);
+        patientX = LEFT + regular.getWidth("Patient ID: ", 10);
+        doctorX = LEFT + regular.getWidth("Doctor ID: ", 10);
+        paymentStatusX = LEFT + regular.getWidth("Payment Status: ", 10);
+        template = buildTemplate();
+    }
+
+    private byte[] buildTemplate() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PdfDocument pdf = new PdfDocument(new PdfWriter(bytes))) {
+            PdfFont regular = PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI);
+            PdfFont bold = PdfFontFactory.createFont(boldFontProgram, PdfEncodings.WINANSI);
+            PdfCanvas canvas = new PdfCanvas(pdf.addNewPage(PAGE));
+
+            centered(canvas, bold, 24, TITLE_Y, "INVOICE");
+            text(canvas, regular, 12, LEFT, INVOICE_NUMBER_Y, "Invoice Number: ");
+            text(canvas, regular, 12, LEFT, DATE_Y, "Date: ");
+            text(canvas, regular, 10, LEFT, BILL_TO_Y, "Bill To:");
+            text(canvas, regular, 10, LEFT, PATIENT_Y, "Patient ID: ");
+            text(canvas, regular, 10, LEFT, PROVIDER_Y, "Service Provider:");
+            text(canvas, regular, 10, LEFT, DOCTOR_Y, "Doctor ID: ");
+
+            // Table grid
+            float bottom = TABLE_TOP - 2 * ROW_HEIGHT;
+            canvas.setLineWidth(0.5f);
+            canvas.rectangle(LEFT, bottom, RIGHT - LEFT, 2 * ROW_HEIGHT);
+            canvas.moveTo(LEFT, TABLE_TOP - ROW_HEIGHT).lineTo(RIGHT, TABLE_TOP - ROW_HEIGHT);
+            for (int i = 1; i < COLUMN_EDGES.length - 1; i++) {
+                canvas.moveTo(COLUMN_EDGES[i], bottom).lineTo(COLUMN_EDGES[i], TABLE_TOP);
+            }
+            canvas.stroke();
+
+            float headerY = rowBaseline(0);
+            text(canvas, bold, 12, COLUMN_EDGES[0] + CELL_PADDING, headerY, "Description");
+            text(canvas, bold, 12, centerOf(bold, 12, 1, "Quantity"), headerY, "Quantity");
+            text(canvas, bold, 12, rightOf(bold, 12, 2, "Rate"), headerY, "Rate");
+            text(canvas, bold, 12, rightOf(bold, 12, 3, "Amount"), headerY, "Amount");
+
+            float itemY = rowBaseline(1);
+            text(canvas, regular, 12, COLUMN_EDGES[0] + CELL_PADDING, itemY, "Consultation Fee");
+            text(canvas, regular, 12, centerOf(regular, 12, 1, "1"), itemY, "1");
+
+            text(canvas, regular, 10, LEFT, PAYMENT_STATUS_Y, "Payment Status: ");
+            centered(canvas, regular, 10, FOOTER_Y, "Thank you for your business!");
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void render(Invoice invoice, Payment payment, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(template)), writer)) {
+            PdfFont regular = PdfFontFactory.createFont(regularFontProgram, PdfEncodings.WINANSI);
+            PdfFont bold = PdfFontFactory.createFont(boldFontProgram, PdfEncodings.WINANSI);
+            PdfPage page = pdf.getFirstPage();
+            PdfCanvas canvas = new PdfCanvas(page.newContentStreamAfter(), page.getResources(), pdf);
+
+            String currency = " " + invoice.getCurrency();
+            String amount = invoice.getAmount().toString();
+
+            text(canvas, regular, 12, invoiceNumberX, INVOICE_NUMBER_Y, invoice.getInvoiceNumber());
+            text(canvas, regular, 12, dateX, DATE_Y, invoice.getIssuedAt().format(DATE));
+            text(canvas, regular, 10, patientX, PATIENT_Y, String.valueOf(invoice.getPatientId()));
+            text(canvas, regular, 10, doctorX, DOCTOR_Y, String.valueOf(invoice.getDoctorId()));
+
+            float itemY = rowBaseline(1);
+            text(canvas, regular, 12, rightOf(regular, 12, 2, amount), itemY, amount);
+            text(canvas, regular, 12, rightOf(regular, 12, 3, amount), itemY, amount);
+
+            rightAligned(canvas, regular, 12, SUBTOTAL_Y, "Subtotal: " + amount + currency);
+            rightAligned(canvas, regular, 12, TAX_Y, "Tax (18%): " + invoice.getTaxAmount() + currency);
+            rightAligned(canvas, bold, 14, TOTAL_Y, "Total: " + invoice.getTotalAmount() + currency);
+
+            text(canvas, regular, 10, paymentStatusX, PAYMENT_STATUS_Y, String.valueOf(payment.getStatus()));
+            if (payment.getPaidAt() != null) {
+                text(canvas, regular, 10, LEFT, PAID_ON_Y, "Paid On: " + payment.getPaidAt().format(DATE_TIME));
+            }
+        }
+    }
+
+    private static void text(PdfCanvas canvas, PdfFont font, float size, float x, float y, String text) {
+        canvas.beginText()
+                .setFontAndSize(font, size)
+                .moveText(x, y)
+                .showText(text)
+                .endText();
+    }
+
+    private static void centered(PdfCanvas canvas, PdfFont font, float size, float y, String text) {
+        text(canvas, font, size, (PAGE.getWidth() - font.getWidth(text, size)) / 2, y, text);
+    }
+
+    private static void rightAligned(PdfCanvas canvas, PdfFont font, float size, float y, String text) {
+        text(canvas, font, size, RIGHT - font.getWidth(text, size), y, text);
+    }
+
+    private static float rowBaseline(int row) {
+        return TABLE_TOP - (row + 1) * ROW_HEIGHT + 7;
+    }
+
+    private static float centerOf(PdfFont font, float size, int column, String text) {
+        return (COLUMN_EDGES[column] + COLUMN_EDGES[column + 1] - font.getWidth(text, size)) / 2;
+    }
+
+    private static float rightOf(PdfFont font, float size, int column, String text) {
+        return COLUMN_EDGES[column + 1] - CELL_PADDING - font.getWidth(text, size);
+    }
+
+    private static float[] columnEdges() {
+        float unit = (RIGHT - LEFT) / 6;
+        return new float[]{LEFT, LEFT + 3 * unit, LEFT + 4 * unit, LEFT + 5 * unit, RIGHT};
+    }
+}
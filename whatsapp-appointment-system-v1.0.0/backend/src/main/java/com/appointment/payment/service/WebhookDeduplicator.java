@@ -0,0 +1,122 @@
+package com.appointment.payment.service;
+
+import com.appointment.payment.event.WebhookEventAppliedEvent;
+import com.appointment.payment.repository.WebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recognises redelivered payment webhooks.
+ * <p>
+ * The {@code payment_webhook_events} table is the source of truth: an event is claimed
+ * in the same transaction that applies it, so it counts as seen only once the payment
+ * change has committed. A bounded, per-instance LRU of recently applied events sits in
+ * front of it, so most retries are acknowledged without a database round trip.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookDeduplicator {
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.webhook.dedup.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${payment.webhook.dedup.retention-days:30}")
+    private int retentionDays;
+
+    private Set<String> recent;
+    private Counter cachedDuplicates;
+    private Counter storedDuplicates;
+
+    @PostConstruct
+    void init() {
+        recent = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        }));
+        cachedDuplicates = meterRegistry.counter("payment.webhook.duplicates", "source", "cache");
+        storedDuplicates = meterRegistry.counter("payment.webhook.duplicates", "source", "database");
+    }
+
+    /**
+     * The provider's event id, or a hash of the raw body for providers that do not send one
+     * (a redelivery repeats the body byte for byte)
+     */
+    public static String eventId(String deliveredId, String payload) {
+        if (deliveredId != null && !deliveredId.isBlank()) {
+            return deliveredId.trim();
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Fast path: true if this instance recently applied the event. A false answer is not
+     * conclusive; {@link #claim} decides.
+     */
+    public boolean isKnownDuplicate(String provider, String eventId) {
+        if (recent.contains(provider + ":" + eventId)) {
+            cachedDuplicates.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the event as applied; must run in the transaction that applies it
+     * @return false if the event was applied before
+     */
+    public boolean claim(String provider, String eventId) {
+        if (webhookEventRepository.insertIfAbsent(provider, eventId)) {
+            eventPublisher.publishEvent(new WebhookEventAppliedEvent(provider, eventId));
+            return true;
+        }
+        storedDuplicates.increment();
+        recent.add(provider + ":" + eventId);
+        return false;
+    }
+
+    @TransactionalEventListener
+    public void onWebhookEventApplied(WebhookEventAppliedEvent event) {
+        recent.add(event.provider() + ":" + event.eventId());
+    }
+
+    /**
+     * Forgets events older than any provider retries them
+     */
+    @Scheduled(cron = "${payment.webhook.dedup.purge-cron:0 15 4 * * *}")
+    public void purge() {
+        int deleted = webhookEventRepository.deleteReceivedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} webhook events older than {} days", deleted, retentionDays);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.appointment.payment.service;
+
+import com.appointment.common.config.SchedulingConfig;
+import com.appointment.common.queue.LeasedQueue;
+import com.appointment.common.queue.LeasedQueueWorker;
+import com.appointment.payment.dto.WebhookPayload;
+import com.appointment.payment.repository.WebhookInboxRepository;
+import com.appointment.payment.repository.WebhookInboxRepository.InboxEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Applies received payment webhooks from the inbox.
+ * <p>
+ * Each poll claims a batch and applies it on a worker pool. The claim never hands out
+ * two events of the same payment at once, so different payments are processed in
+ * parallel while each payment's events are applied one after the other in arrival
+ * order. An event is applied and marked processed in one transaction; retries and
+ * parking as FAILED are left to {@link LeasedQueueWorker}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookInboxWorker {
+
+    private final WebhookInboxRepository inboxRepository;
+    private final PaymentProvider paymentProvider;
+    private final PaymentService paymentService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.webhook.inbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.webhook.inbox.workers:4}")
+    private int workers;
+
+    @Value("${payment.webhook.inbox.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${payment.webhook.inbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${payment.webhook.inbox.initial-backoff-seconds:5}")
+    private long initialBackoffSeconds;
+
+    @Value("${payment.webhook.inbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${payment.webhook.inbox.retention-days:7}")
+    private int retentionDays;
+
+    private LeasedQueueWorker<InboxEntry> worker;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        worker = new LeasedQueueWorker<>(new InboxQueue(),
+                new LeasedQueueWorker.Settings(batchSize, workers, leaseSeconds, maxAttempts,
+                        initialBackoffSeconds, maxBackoffSeconds),
+                "webhook-inbox-", "payment.webhook.inbox", meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.shutdown();
+    }
+
+    /**
+     * Drains due webhooks until a batch comes back short
+     */
+    @Scheduled(fixedDelayString = "${payment.webhook.inbox.interval-ms:500}", scheduler = SchedulingConfig.BLOCKING_SCHEDULER)
+    public void drain() {
+        worker.drain();
+    }
+
+    private void apply(InboxEntry entry) {
+        WebhookPayload webhookPayload = paymentProvider.processWebhook(entry.payload());
+        if (webhookPayload != null) {
+            webhookPayload.setEventId(entry.eventId());
+            paymentService.processWebhook(webhookPayload);
+        } else {
+            log.info("Webhook {} carries no payment update, ignoring", entry.id());
+        }
+        inboxRepository.markProcessed(entry.id());
+    }
+
+    /**
+     * Removes applied webhooks past the retention period
+     */
+    @Scheduled(cron = "${payment.webhook.inbox.cleanup-cron:0 45 3 * * ?}")
+    public void purgeProcessed() {
+        int deleted = worker.purgeProcessed(retentionDays);
+        log.info("Purged {} processed webhooks older than {} days", deleted, retentionDays);
+    }
+
+    private class InboxQueue implements LeasedQueue<InboxEntry> {
+
+        @Override
+        public List<InboxEntry> claimDue(int limit, int leaseSeconds) {
+            return inboxRepository.claimDue(limit, leaseSeconds);
+        }
+
+        @Override
+        public void process(InboxEntry entry) {
+            transactionTemplate.executeWithoutResult(status -> apply(entry));
+        }
+
+        @Override
+        public void markFailed(InboxEntry entry, String error, long retryDelaySeconds, boolean giveUp) {
+            inboxRepository.markFailed(entry.id(), error, retryDelaySeconds, giveUp);
+        }
+
+        @Override
+        public int deleteProcessedBefore(int retentionDays) {
+            return inboxRepository.deleteProcessedBefore(retentionDays);
+        }
+
+        @Override
+        public int attempts(InboxEntry entry) {
+            return entry.attempts();
+        }
+
+        @Override
+        public String describe(InboxEntry entry) {
+            return String.format("Webhook %d (%s event %s)", entry.id(), entry.provider(), entry.eventId());
+        }
+    }
+}
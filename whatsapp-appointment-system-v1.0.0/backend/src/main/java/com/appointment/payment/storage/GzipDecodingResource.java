@@ -0,0 +1,53 @@
+package com.appointment.payment.storage;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exposes a gzip-compressed object as its decompressed content. The decompressed
+ * length is known up front, so Content-Length and Range requests keep working.
+ */
+class GzipDecodingResource extends AbstractResource {
+
+    private final Resource compressed;
+    private final long length;
+
+    GzipDecodingResource(Resource compressed, long length) {
+        this.compressed = compressed;
+        this.length = length;
+    }
+
+    static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new GZIPInputStream(compressed.getInputStream());
+    }
+
+    @Override
+    public boolean exists() {
+        return compressed.exists();
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public String getDescription() {
+        return "gzip-decoded " + compressed.getDescription();
+    }
+}
@@ -0,0 +1,60 @@
+package com.appointment.payment.storage;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for rendered invoice PDFs.
+ * <p>
+ * A document is stored under the SHA-256 of its bytes (lowercase hex), which is also
+ * the key kept on the invoice. Storing identical content twice keeps one copy, the
+ * key doubles as a strong ETag, and a document can be found and served from its key
+ * alone. The backend is selected with {@code invoice.storage.backend}: {@code local}
+ * (default) or {@code s3}.
+ */
+public interface InvoiceStore {
+
+    Pattern KEY = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * Stores the document unless content with the same hash is already there
+     * @return The content key
+     */
+    String put(byte[] pdf) throws IOException;
+
+    /**
+     * Looks up a stored document; only metadata is read until the content is opened
+     */
+    Optional<StoredInvoice> find(String key) throws IOException;
+
+    static boolean isKey(String value) {
+        return value != null && KEY.matcher(value).matches();
+    }
+
+    static String keyOf(byte[] content) {
+        return HexFormat.of().formatHex(sha256(content));
+    }
+
+    static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Sharded relative location of a key, {@code ab/cd/abcd...}, so no directory or
+     * listing prefix holds more than a small fraction of all invoices
+     */
+    static String shardedPath(String key) {
+        if (!isKey(key)) {
+            throw new IllegalArgumentException("Invalid invoice key");
+        }
+        return key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + key;
+    }
+}
@@ -0,0 +1,178 @@
+package com.appointment.payment.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores invoices on local disk under {@code invoice.storage.path}.
+ * <p>
+ * Files live at {@code ab/cd/<key>.pdf}, or {@code .pdf.gz} when compressed, and are
+ * written to a temporary file first and moved into place. Compression happens on
+ * write with {@code invoice.storage.compress}, or later for invoices older than
+ * {@code invoice.storage.local.archive-after-days}; the key stays the same either way.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "invoice.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalInvoiceStore implements InvoiceStore {
+
+    private static final String PDF = ".pdf";
+    private static final String GZIP = ".pdf.gz";
+
+    @Value("${invoice.storage.path:./invoices}")
+    private String storagePath;
+
+    @Value("${invoice.storage.compress:false}")
+    private boolean compress;
+
+    /**
+     * 0 disables archiving
+     */
+    @Value("${invoice.storage.local.archive-after-days:0}")
+    private int archiveAfterDays;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Files.createDirectories(Paths.get(storagePath).toAbsolutePath());
+    }
+
+    @Override
+    public String put(byte[] pdf) throws IOException {
+        String key = InvoiceStore.keyOf(pdf);
+        Path base = root.resolve(InvoiceStore.shardedPath(key));
+        if (Files.exists(path(base, PDF)) || Files.exists(path(base, GZIP))) {
+            return key;
+        }
+        Path directory = Files.createDirectories(base.getParent());
+        Path partial = Files.createTempFile(directory, key, ".part");
+        try {
+            Files.write(partial, compress ? GzipDecodingResource.gzip(pdf) : pdf);
+            // Concurrent writers of the same key write identical content, so the last move wins harmlessly
+            Files.move(partial, path(base, compress ? GZIP : PDF),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return key;
+    }
+
+    @Override
+    public Optional<StoredInvoice> find(String key) throws IOException {
+        if (!InvoiceStore.isKey(key)) {
+            return Optional.empty();
+        }
+        Path base = root.resolve(InvoiceStore.shardedPath(key));
+        Path plain = path(base, PDF);
+        BasicFileAttributes attributes = attributes(plain);
+        if (attributes != null) {
+            return Optional.of(new StoredInvoice(key, attributes.size(),
+                    attributes.lastModifiedTime().toInstant(), new FileSystemResource(plain)));
+        }
+        Path compressed = path(base, GZIP);
+        attributes = attributes(compressed);
+        if (attributes != null) {
+            long size = gzipContentLength(compressed);
+            return Optional.of(new StoredInvoice(key, size, attributes.lastModifiedTime().toInstant(),
+                    new GzipDecodingResource(new FileSystemResource(compressed), size)));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Compresses uncompressed invoices older than the configured age
+     */
+    @Scheduled(cron = "${invoice.storage.local.archive-cron:0 30 3 * * *}")
+    public void archive() {
+        if (archiveAfterDays <= 0) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofDays(archiveAfterDays)));
+        List<Path> candidates;
+        try (Stream<Path> files = Files.find(root, 3, (file, attributes) -> attributes.isRegularFile()
+                && file.getFileName().toString().endsWith(PDF)
+                && attributes.lastModifiedTime().compareTo(cutoff) < 0)) {
+            candidates = files.toList();
+        } catch (IOException e) {
+            log.error("Listing invoices to archive failed", e);
+            return;
+        }
+
+        int archived = 0;
+        for (Path file : candidates) {
+            try {
+                archive(file);
+                archived++;
+            } catch (IOException e) {
+                log.warn("Archiving invoice {} failed: {}", file.getFileName(), e.getMessage());
+            }
+        }
+        if (archived > 0) {
+            log.info("Compressed {} archived invoices", archived);
+        }
+    }
+
+    private void archive(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        Path target = file.resolveSibling(fileName.substring(0, fileName.length() - PDF.length()) + GZIP);
+        Path partial = Files.createTempFile(file.getParent(), fileName, ".part");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+                Files.copy(file, out);
+            }
+            Files.setLastModifiedTime(partial, Files.getLastModifiedTime(file));
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        Files.delete(file);
+    }
+
+    private static Path path(Path base, String suffix) {
+        return base.resolveSibling(base.getFileName() + suffix);
+    }
+
+    private static BasicFileAttributes attributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the uncompressed length from the gzip trailer (ISIZE, modulo 2^32; invoices are far smaller)
+     */
+    private static long gzipContentLength(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(trailer, channel.size() - 4);
+            return Integer.toUnsignedLong(trailer.getInt(0));
+        }
+    }
+}
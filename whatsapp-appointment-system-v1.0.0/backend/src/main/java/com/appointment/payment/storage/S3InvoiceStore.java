@@ -0,0 +1,207 @@
+package com.appointment.payment.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores invoices in an S3-compatible bucket (AWS S3, MinIO, Ceph, ...).
+ * <p>
+ * Objects are addressed path-style as {@code <endpoint>/<bucket>/<prefix>ab/cd/<key>},
+ * so any S3 API works, including a local MinIO. Requests are signed with Signature
+ * Version 4 over the JDK HTTP client. With {@code invoice.storage.compress} objects
+ * are written gzip-compressed; the compression and original length travel as object
+ * metadata, so a single HEAD describes a document.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "invoice.storage.backend", havingValue = "s3")
+public class S3InvoiceStore implements InvoiceStore {
+
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final String META_COMPRESSION = "x-amz-meta-compression";
+    private static final String META_LENGTH = "x-amz-meta-pdf-length";
+    private static final String EMPTY_PAYLOAD_HASH = InvoiceStore.keyOf(new byte[0]);
+
+    @Value("${invoice.storage.s3.endpoint:http://localhost:9000}")
+    private String endpoint;
+
+    @Value("${invoice.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${invoice.storage.s3.bucket:invoices}")
+    private String bucket;
+
+    @Value("${invoice.storage.s3.prefix:}")
+    private String prefix;
+
+    @Value("${invoice.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${invoice.storage.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${invoice.storage.s3.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${invoice.storage.compress:false}")
+    private boolean compress;
+
+    private HttpClient httpClient;
+    private S3RequestSigner signer;
+
+    @PostConstruct
+    void init() {
+        if (accessKey.isBlank() || secretKey.isBlank()) {
+            throw new IllegalStateException("invoice.storage.s3.access-key and secret-key are required for the s3 backend");
+        }
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        signer = new S3RequestSigner(accessKey, secretKey, region);
+        log.info("Invoice store: bucket {} at {}", bucket, endpoint);
+    }
+
+    @Override
+    public String put(byte[] pdf) throws IOException {
+        String key = InvoiceStore.keyOf(pdf);
+        if (head(key).isPresent()) {
+            return key;
+        }
+        byte[] body = compress ? GzipDecodingResource.gzip(pdf) : pdf;
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("content-type", "application/pdf");
+        headers.put(META_LENGTH, Long.toString(pdf.length));
+        if (compress) {
+            headers.put(META_COMPRESSION, "gzip");
+        }
+        // S3 checks the body against this hash, so a corrupted upload is rejected
+        String payloadHash = body == pdf ? key : InvoiceStore.keyOf(body);
+        HttpResponse<Void> response = send("PUT", objectUri(key), headers, payloadHash,
+                HttpRequest.BodyPublishers.ofByteArray(body), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IOException("S3 PUT of invoice " + key + " returned " + response.statusCode());
+        }
+        return key;
+    }
+
+    @Override
+    public Optional<StoredInvoice> find(String key) throws IOException {
+        if (!InvoiceStore.isKey(key)) {
+            return Optional.empty();
+        }
+        return head(key);
+    }
+
+    private Optional<StoredInvoice> head(String key) throws IOException {
+        URI uri = objectUri(key);
+        HttpResponse<Void> response = send("HEAD", uri, Map.of(), EMPTY_PAYLOAD_HASH,
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("S3 HEAD of invoice " + key + " returned " + response.statusCode());
+        }
+
+        long storedLength = response.headers().firstValueAsLong("content-length").orElse(-1);
+        long size = response.headers().firstValueAsLong(META_LENGTH).orElse(storedLength);
+        Instant lastModified = response.headers().firstValue("last-modified")
+                .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant())
+                .orElse(Instant.EPOCH);
+        boolean gzip = response.headers().firstValue(META_COMPRESSION).filter("gzip"::equalsIgnoreCase).isPresent();
+
+        S3ObjectResource object = new S3ObjectResource(uri, storedLength);
+        return Optional.of(new StoredInvoice(key, size, lastModified,
+                gzip ? new GzipDecodingResource(object, size) : object));
+    }
+
+    private <T> HttpResponse<T> send(String method, URI uri, Map<String, String> headers, String payloadHash,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        Map<String, String> signed = new LinkedHashMap<>(headers);
+        signed.put("host", uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        signed.put("x-amz-date", ZonedDateTime.now(ZoneOffset.UTC).format(AMZ_DATE));
+        signed.put("x-amz-content-sha256", payloadHash);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .method(method, body)
+                .header("Authorization", signer.authorization(method, uri, signed));
+        // The client sets Host itself, from the same URI
+        signed.forEach((name, value) -> {
+            if (!name.equals("host")) {
+                request.header(name, value);
+            }
+        });
+        try {
+            return httpClient.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during S3 " + method);
+        }
+    }
+
+    private URI objectUri(String key) {
+        String base = endpoint.endsWith("/") ? endpoint : endpoint + "/";
+        return URI.create(base + bucket + "/" + prefix + InvoiceStore.shardedPath(key));
+    }
+
+    /**
+     * The stored object, fetched with a GET each time it is opened
+     */
+    private final class S3ObjectResource extends AbstractResource {
+
+        private final URI uri;
+        private final long length;
+
+        private S3ObjectResource(URI uri, long length) {
+            this.uri = uri;
+            this.length = length;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            HttpResponse<InputStream> response = send("GET", uri, Map.of(), EMPTY_PAYLOAD_HASH,
+                    HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IOException("S3 GET of " + uri.getPath() + " returned " + response.statusCode());
+            }
+            return response.body();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + uri + "]";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.appointment.payment.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+
+/**
+ * A stored invoice PDF
+ * @param size Length of the PDF itself, also when it is stored compressed
+ * @param content The PDF bytes, decompressed if needed; opened only when read
+ */
+public record StoredInvoice(String key, long size, Instant lastModified, Resource content) {
+
+    /**
+     * The content hash never changes for a key, so it is a strong validator
+     */
+    public String etag() {
+        return "\"" + key + "\"";
+    }
+}
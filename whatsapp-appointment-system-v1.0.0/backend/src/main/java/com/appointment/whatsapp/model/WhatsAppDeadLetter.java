@@ -0,0 +1,56 @@
+package com.appointment.whatsapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbound message given up after the last retry (or dropped because the queue was full or shutting down)
+ */
+@Entity
+@Table(name = "whatsapp_dead_letters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhatsAppDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false, length = 64)
+    private String messageId;
+
+    @Column(name = "message_type", nullable = false, length = 30)
+    private String messageType;
+
+    @Column(name = "recipient", nullable = false, length = 50)
+    private String recipient;
+
+    @Column(name = "sender", length = 50)
+    private String sender;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "media_url", columnDefinition = "TEXT")
+    private String mediaUrl;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,9 @@
+package com.appointment.whatsapp.repository;
+
+import com.appointment.whatsapp.model.WhatsAppDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WhatsAppDeadLetterRepository extends JpaRepository<WhatsAppDeadLetter, Long> {
+}
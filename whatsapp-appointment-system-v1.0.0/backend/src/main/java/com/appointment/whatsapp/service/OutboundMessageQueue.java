@@ -0,0 +1,247 @@
+package com.appointment.whatsapp.service;
+
+import com.appointment.whatsapp.dto.MessageRequest;
+import com.appointment.whatsapp.dto.MessageResponse;
+import com.appointment.whatsapp.model.WhatsAppDeadLetter;
+import com.appointment.whatsapp.repository.WhatsAppDeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-process outbound queue in front of the {@link WhatsAppProvider}.
+ * <p>
+ * Callers get a message id and a future back immediately; a worker pool drains the
+ * queue, waits on a per-sender token bucket so provider throughput limits are
+ * respected, retries failed sends with exponential backoff and finally records the
+ * message in the dead-letter table. Messages still queued at shutdown are
+ * dead-lettered as well, so nothing is dropped silently.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboundMessageQueue {
+
+    private final WhatsAppProvider whatsAppProvider;
+    private final WhatsAppDeadLetterRepository deadLetterRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${whatsapp.outbound.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${whatsapp.outbound.workers:4}")
+    private int workers;
+
+    @Value("${whatsapp.outbound.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${whatsapp.outbound.burst:20}")
+    private int burst;
+
+    @Value("${whatsapp.outbound.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${whatsapp.outbound.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${whatsapp.outbound.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    private BlockingQueue<OutboundMessage> queue;
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Set<OutboundMessage> awaitingRetry = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+
+    private Timer deliveryTimer;
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter deadLetteredCounter;
+
+    /**
+     * A queued message; {@code result} completes with the provider response after the
+     * last attempt (successful or not)
+     */
+    public static final class OutboundMessage {
+        private final String id = UUID.randomUUID().toString();
+        private final String type;
+        private final MessageRequest request;
+        private final Function<WhatsAppProvider, MessageResponse> delivery;
+        private final CompletableFuture<MessageResponse> result = new CompletableFuture<>();
+        private int attempts;
+
+        private OutboundMessage(String type, MessageRequest request, Function<WhatsAppProvider, MessageResponse> delivery) {
+            this.type = type;
+            this.request = request;
+            this.delivery = delivery;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public CompletableFuture<MessageResponse> getResult() {
+            return result;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("whatsapp-retry-"));
+        workerPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("whatsapp-sender-"));
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::drain);
+        }
+
+        deliveryTimer = Timer.builder("whatsapp.outbound.delivery.duration")
+                .description("Provider round trip per outbound WhatsApp message")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        sentCounter = meterRegistry.counter("whatsapp.outbound.sent");
+        retriedCounter = meterRegistry.counter("whatsapp.outbound.retried");
+        deadLetteredCounter = meterRegistry.counter("whatsapp.outbound.dead_lettered");
+        Gauge.builder("whatsapp.outbound.queue.size", this, q -> q.queue.size())
+                .description("Outbound WhatsApp messages waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a message for delivery
+     * @param type Short label stored with dead letters (TEXT, MEDIA, ...)
+     * @param request The message as the provider will see it
+     * @param delivery The provider call to make
+     */
+    public OutboundMessage enqueue(String type, MessageRequest request, Function<WhatsAppProvider, MessageResponse> delivery) {
+        OutboundMessage message = new OutboundMessage(type, request, delivery);
+        if (!running || !queue.offer(message)) {
+            String reason = running ? "Outbound queue full" : "Outbound queue stopped";
+            log.error("{}, dead-lettering message {} to {}", reason, message.id, request.getTo());
+            deadLetter(message, reason);
+        }
+        return message;
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                OutboundMessage message = queue.poll(1, TimeUnit.SECONDS);
+                if (message != null) {
+                    deliver(message);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in WhatsApp sender", e);
+            }
+        }
+    }
+
+    private void deliver(OutboundMessage message) throws InterruptedException {
+        String sender = message.request.getFrom() != null ? message.request.getFrom() : "";
+        buckets.computeIfAbsent(sender, s -> new TokenBucket(ratePerSecond, burst)).acquire();
+
+        message.attempts++;
+        long start = System.nanoTime();
+        MessageResponse response;
+        try {
+            response = message.delivery.apply(whatsAppProvider);
+        } catch (Exception e) {
+            response = MessageResponse.builder().success(false).errorMessage(e.getMessage()).build();
+        }
+        deliveryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (response != null && response.isSuccess()) {
+            sentCounter.increment();
+            message.result.complete(response);
+            return;
+        }
+
+        String error = response != null ? response.getErrorMessage() : "No response from provider";
+        if (message.attempts >= maxAttempts) {
+            log.error("Giving up on message {} to {} after {} attempts: {}",
+                    message.id, message.request.getTo(), message.attempts, error);
+            deadLetter(message, error);
+            return;
+        }
+
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(message.attempts - 1, 20));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        log.warn("Send of message {} failed (attempt {}), retrying in {} ms: {}",
+                message.id, message.attempts, jittered, error);
+        retriedCounter.increment();
+        awaitingRetry.add(message);
+        retryScheduler.schedule(() -> {
+            awaitingRetry.remove(message);
+            if (!queue.offer(message)) {
+                deadLetter(message, "Outbound queue full on retry");
+            }
+        }, jittered, TimeUnit.MILLISECONDS);
+    }
+
+    private void deadLetter(OutboundMessage message, String error) {
+        deadLetteredCounter.increment();
+        try {
+            deadLetterRepository.save(WhatsAppDeadLetter.builder()
+                    .messageId(message.id)
+                    .messageType(message.type)
+                    .recipient(message.request.getTo())
+                    .sender(message.request.getFrom())
+                    .body(message.request.getBody())
+                    .mediaUrl(message.request.getMediaUrl())
+                    .attempts(message.attempts)
+                    .lastError(error)
+                    .build());
+        } catch (Exception e) {
+            log.error("Could not store dead letter for message {} to {}", message.id, message.request.getTo(), e);
+        }
+        message.result.complete(MessageResponse.builder()
+                .success(false)
+                .messageId(message.id)
+                .status("FAILED")
+                .errorMessage(error)
+                .build());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        workerPool.shutdown();
+        workerPool.awaitTermination(10, TimeUnit.SECONDS);
+
+        List<OutboundMessage> leftover = new ArrayList<>(awaitingRetry);
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            log.warn("Dead-lettering {} undelivered WhatsApp messages on shutdown", leftover.size());
+            leftover.forEach(message -> deadLetter(message, "Application shut down before delivery"));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.appointment.whatsapp.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter: refills at a fixed rate up to a burst capacity
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier clock;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.clock = clock;
+        this.tokens = burst;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available
+     * @return 0 when a token was taken, otherwise the nanoseconds until the next one
+     */
+    synchronized long tryAcquire() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+    /**
+     * Blocks until a token is available
+     */
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -2,29 +2,35 @@ package com.appointment.whatsapp.service;
 
 import com.appointment.whatsapp.dto.MessageRequest;
 import com.appointment.whatsapp.dto.MessageResponse;
+import com.appointment.whatsapp.service.OutboundMessageQueue.OutboundMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Builds outbound WhatsApp messages and hands them to the {@link OutboundMessageQueue}.
+ * Methods return right away with a QUEUED response carrying the local message id;
+ * the *Async variants expose the final provider response.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WhatsAppService {
     
-    private final WhatsAppProvider whatsAppProvider;
+    private final OutboundMessageQueue outboundQueue;
     
     @Value("${whatsapp.twilio.phone-number}")
     private String fromNumber;
     
     public MessageResponse sendTextMessage(String to, String message) {
-        MessageRequest request = MessageRequest.builder()
-                .to(to)
-                .from(fromNumber)
-                .body(message)
-                .build();
-        
-        return whatsAppProvider.sendTextMessage(request);
+        return queued(enqueueText(to, message));
+    }
+    
+    public CompletableFuture<MessageResponse> sendTextMessageAsync(String to, String message) {
+        return enqueueText(to, message).getResult();
     }
     
     public MessageResponse sendBookingConfirmation(String to, String patientName, String date, 
@@ -57,13 +63,21 @@ public class WhatsAppService {
     
     public MessageResponse sendReminder(String to, String patientName, String time, 
                                        String doctorName, int hoursBefore) {
-        String message = String.format(
+        return queued(enqueueText(to, reminderText(time, doctorName, hoursBefore)));
+    }
+    
+    public CompletableFuture<MessageResponse> sendReminderAsync(String to, String patientName, String time,
+                                                                String doctorName, int hoursBefore) {
+        return enqueueText(to, reminderText(time, doctorName, hoursBefore)).getResult();
+    }
+    
+    private String reminderText(String time, String doctorName, int hoursBefore) {
+        return String.format(
                 "Reminder: You have an appointment %s at %s with %s. " +
                 "Please arrive 10 minutes early.",
                 hoursBefore == 24 ? "tomorrow" : "in 1 hour",
                 time, doctorName
         );
-        return sendTextMessage(to, message);
     }
     
     public MessageResponse sendInvoice(String to, String patientName, String invoiceUrl) {
@@ -75,21 +89,18 @@ public class WhatsAppService {
                 .mediaType("document")
                 .build();
         
-        return whatsAppProvider.sendMedia(request, invoiceUrl, "document", 
-                "Your invoice is attached.");
+        return queued(outboundQueue.enqueue("MEDIA", request,
+                provider -> provider.sendMedia(request, invoiceUrl, "document", "Your invoice is attached.")));
     }
     
     public MessageResponse sendSlotList(String to, String date, String[][] slots) {
-        return whatsAppProvider.sendListMessage(
-                MessageRequest.builder()
-                        .to(to)
-                        .from(fromNumber)
-                        .body("Available slots for " + date)
-                        .build(),
-                "Available Slots",
-                "Please select a slot:",
-                slots
-        );
+        MessageRequest request = MessageRequest.builder()
+                .to(to)
+                .from(fromNumber)
+                .body("Available slots for " + date)
+                .build();
+        return queued(outboundQueue.enqueue("LIST", request,
+                provider -> provider.sendListMessage(request, "Available Slots", "Please select a slot:", slots)));
     }
     
     public MessageResponse sendApprovalRequest(String to, String doctorName, String patientName, 
@@ -100,15 +111,35 @@ public class WhatsAppService {
                 patientName, date, time, bookingId
         );
         
-        return whatsAppProvider.sendInteractiveButtons(
-                MessageRequest.builder()
-                        .to(to)
-                        .from(fromNumber)
-                        .body(message)
-                        .build(),
-                "Please approve or reject:",
-                buttons
-        );
+        MessageRequest request = MessageRequest.builder()
+                .to(to)
+                .from(fromNumber)
+                .body(message)
+                .build();
+        return queued(outboundQueue.enqueue("BUTTONS", request,
+                provider -> provider.sendInteractiveButtons(request, "Please approve or reject:", buttons)));
+    }
+    
+    private OutboundMessage enqueueText(String to, String message) {
+        MessageRequest request = MessageRequest.builder()
+                .to(to)
+                .from(fromNumber)
+                .body(message)
+                .build();
+        return outboundQueue.enqueue("TEXT", request, provider -> provider.sendTextMessage(request));
+    }
+    
+    private static MessageResponse queued(OutboundMessage message) {
+        // Already settled, e.g. dead-lettered because the queue was full
+        MessageResponse settled = message.getResult().getNow(null);
+        if (settled != null) {
+            return settled;
+        }
+        return MessageResponse.builder()
+                .success(true)
+                .messageId(message.getId())
+                .status("QUEUED")
+                .build();
     }
 }
 
@@ -0,0 +1,23 @@
+-- Slot generation now relies on INSERT ... ON CONFLICT DO NOTHING, which needs
+-- a unique natural key on (doctor_id, slot_date, start_time, end_time).
+
+-- One survivor per natural key: a BOOKED copy if there is one, otherwise the lowest id,
+-- so a booked slot never collapses into an AVAILABLE row that could be booked again
+CREATE TEMPORARY TABLE slot_survivors ON COMMIT DROP AS
+SELECT id, FIRST_VALUE(id) OVER (
+           PARTITION BY doctor_id, slot_date, start_time, end_time
+           ORDER BY (status = 'BOOKED') DESC, id) AS keep_id
+FROM slots;
+
+-- Point bookings at the survivor
+UPDATE bookings b
+SET slot_id = d.keep_id
+FROM slot_survivors d
+WHERE b.slot_id = d.id AND d.id <> d.keep_id;
+
+-- Remove the duplicates
+DELETE FROM slots s
+USING slot_survivors d
+WHERE s.id = d.id AND d.id <> d.keep_id;
+
+ALTER TABLE slots ADD CONSTRAINT uq_slots_doctor_date_time UNIQUE (doctor_id, slot_date, start_time, end_time);
@@ -0,0 +1,7 @@
+-- Tracks how far ahead each doctor's slots have been materialized, so the
+-- availability read path can tell "no slots left" apart from "not generated yet"
+CREATE TABLE IF NOT EXISTS slot_horizons (
+    doctor_id BIGINT PRIMARY KEY,
+    materialized_through DATE NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,18 @@
+-- Progress of the nightly slot generation job. Doctors are processed in id order,
+-- so a single watermark is enough for a crashed or timed out run to resume
+CREATE TABLE IF NOT EXISTS slot_generation_runs (
+    id BIGSERIAL PRIMARY KEY,
+    run_date DATE NOT NULL UNIQUE,
+    status VARCHAR(20) NOT NULL,
+    resume_after_doctor_id BIGINT NOT NULL DEFAULT 0,
+    doctors_processed INTEGER NOT NULL DEFAULT 0,
+    slots_created BIGINT NOT NULL DEFAULT 0,
+    failed_chunks INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+-- Keyset paging over active doctors
+CREATE INDEX IF NOT EXISTS idx_users_active_doctors ON users(id) WHERE role = 'DOCTOR' AND is_active = true;
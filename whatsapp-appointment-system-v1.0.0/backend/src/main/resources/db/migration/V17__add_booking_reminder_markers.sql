@@ -0,0 +1,9 @@
+-- Persisted "reminder sent" markers so reminder runs are idempotent and can be
+-- shared between instances (rows are claimed with FOR UPDATE SKIP LOCKED)
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS reminder_24h_sent_at TIMESTAMP;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS reminder_1h_sent_at TIMESTAMP;
+
+-- Keyset scan of confirmed bookings in a reminder window
+CREATE INDEX IF NOT EXISTS idx_bookings_confirmed_schedule
+    ON bookings (booking_date, start_time, id)
+    WHERE status = 'CONFIRMED';
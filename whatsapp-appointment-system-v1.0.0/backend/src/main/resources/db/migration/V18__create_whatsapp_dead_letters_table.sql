@@ -0,0 +1,15 @@
+-- Outbound WhatsApp messages that could not be delivered after all retries
+CREATE TABLE IF NOT EXISTS whatsapp_dead_letters (
+    id BIGSERIAL PRIMARY KEY,
+    message_id VARCHAR(64) NOT NULL,
+    message_type VARCHAR(30) NOT NULL,
+    recipient VARCHAR(50) NOT NULL,
+    sender VARCHAR(50),
+    body TEXT,
+    media_url TEXT,
+    attempts INTEGER NOT NULL,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_whatsapp_dead_letters_created_at ON whatsapp_dead_letters(created_at);
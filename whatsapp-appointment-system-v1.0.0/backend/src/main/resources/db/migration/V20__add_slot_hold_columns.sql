@@ -0,0 +1,7 @@
+-- Holds stored on the slot row (slot.hold.backend=database)
+ALTER TABLE slots ADD COLUMN IF NOT EXISTS hold_token VARCHAR(64);
+ALTER TABLE slots ADD COLUMN IF NOT EXISTS held_by BIGINT;
+ALTER TABLE slots ADD COLUMN IF NOT EXISTS held_until TIMESTAMP;
+
+-- Sweeper scans expired holds in held_until order
+CREATE INDEX IF NOT EXISTS idx_slots_held_until ON slots(held_until) WHERE status = 'HELD';
@@ -0,0 +1,5 @@
+-- Keyset listings ordered by (booking_date, start_time, id)
+CREATE INDEX IF NOT EXISTS idx_bookings_patient_schedule ON bookings(patient_id, booking_date, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_patient_phone_schedule ON bookings(patient_phone, booking_date, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_doctor_pending_schedule ON bookings(doctor_id, booking_date, start_time, id)
+    WHERE status = 'PENDING';
@@ -0,0 +1,32 @@
+-- Per doctor, per appointment day booking aggregates for the dashboard.
+-- Kept current from outbox events and reconciled nightly.
+CREATE TABLE IF NOT EXISTS doctor_daily_metrics (
+    doctor_id BIGINT NOT NULL,
+    metric_date DATE NOT NULL,
+    bookings_total INTEGER NOT NULL DEFAULT 0,
+    pending_count INTEGER NOT NULL DEFAULT 0,
+    confirmed_count INTEGER NOT NULL DEFAULT 0,
+    completed_count INTEGER NOT NULL DEFAULT 0,
+    cancelled_count INTEGER NOT NULL DEFAULT 0,
+    revenue NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (doctor_id, metric_date)
+);
+
+-- Recomputing one doctor's day reads exactly these bookings
+CREATE INDEX IF NOT EXISTS idx_bookings_doctor_date ON bookings(doctor_id, booking_date);
+
+-- Backfill from existing bookings
+INSERT INTO doctor_daily_metrics (doctor_id, metric_date, bookings_total, pending_count, confirmed_count,
+                                  completed_count, cancelled_count, revenue)
+SELECT b.doctor_id, b.booking_date, COUNT(*),
+       COUNT(*) FILTER (WHERE b.status = 'PENDING'),
+       COUNT(*) FILTER (WHERE b.status IN ('CONFIRMED', 'ACCEPTED')),
+       COUNT(*) FILTER (WHERE b.status IN ('COMPLETED', 'PAID')),
+       COUNT(*) FILTER (WHERE b.status = 'CANCELLED'),
+       COALESCE(SUM(pay.amount), 0)
+FROM bookings b
+LEFT JOIN LATERAL (SELECT SUM(p.amount) AS amount FROM payments p
+                   WHERE p.booking_id = b.id AND p.status = 'SUCCESS') pay ON TRUE
+GROUP BY b.doctor_id, b.booking_date
+ON CONFLICT (doctor_id, metric_date) DO NOTHING;
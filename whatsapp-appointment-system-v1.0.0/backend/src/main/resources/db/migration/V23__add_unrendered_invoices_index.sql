@@ -0,0 +1,2 @@
+-- Invoices are stored before their PDF is rendered; the render sweep looks for the stragglers
+CREATE INDEX IF NOT EXISTS idx_invoices_unrendered ON invoices(id) WHERE pdf_path IS NULL;
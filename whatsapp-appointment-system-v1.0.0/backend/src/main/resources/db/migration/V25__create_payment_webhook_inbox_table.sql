@@ -0,0 +1,20 @@
+-- Payment webhooks as received (after signature check), applied asynchronously by the inbox worker.
+-- payment_key (payment link or provider payment id) orders the events of one payment.
+CREATE TABLE IF NOT EXISTS payment_webhook_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    provider VARCHAR(20) NOT NULL,
+    event_id VARCHAR(100) NOT NULL,
+    payment_key VARCHAR(100),
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    CONSTRAINT uq_payment_webhook_inbox_event UNIQUE (provider, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_inbox_due ON payment_webhook_inbox(available_at, id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_inbox_payment ON payment_webhook_inbox(payment_key, id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_payment_webhook_inbox_processed_at ON payment_webhook_inbox(processed_at) WHERE status = 'PROCESSED';
@@ -0,0 +1,96 @@
+package com.appointment.auth.security;
+
+import com.appointment.auth.security.StompAuthChannelInterceptor.StompUser;
+import com.appointment.auth.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.security.Principal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StompAuthChannelInterceptorTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompAuthChannelInterceptor interceptor;
+
+    @Test
+    void testPreSend_ConnectWithValidTokenSetsUser() {
+        // Given
+        when(jwtService.extractUsername("jwt")).thenReturn("dr.house");
+        when(jwtService.validateToken("jwt", "dr.house")).thenReturn(true);
+        when(jwtService.extractClaim(eq("jwt"), any())).thenReturn("DOCTOR", 7L);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer jwt");
+        accessor.setLeaveMutable(true);
+
+        // When
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+
+        // Then
+        assertEquals(new StompUser("dr.house", 7L, "DOCTOR"), accessor.getUser());
+    }
+
+    @Test
+    void testPreSend_DoctorSubscribesToOwnTopic() {
+        Message<?> subscribe = subscribe("/topic/doctor/7/bookings", new StompUser("dr.house", 7L, "DOCTOR"));
+
+        assertSame(subscribe, interceptor.preSend(subscribe, channel));
+    }
+
+    @Test
+    void testPreSend_RejectsOtherDoctorsTopic() {
+        Message<?> subscribe = subscribe("/topic/doctor/8/metrics", new StompUser("dr.house", 7L, "DOCTOR"));
+
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe, channel));
+    }
+
+    @Test
+    void testPreSend_RejectsAnonymousAndPatientSessions() {
+        Message<?> anonymous = subscribe("/topic/doctor/7/bookings", null);
+        Message<?> patient = subscribe("/topic/doctor/7/bookings", new StompUser("jane", 7L, "PATIENT"));
+
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(anonymous, channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(patient, channel));
+    }
+
+    @Test
+    void testPreSend_RejectsWildcardSubscriptions() {
+        Message<?> subscribe = subscribe("/topic/**", new StompUser("dr.house", 7L, "DOCTOR"));
+
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe, channel));
+    }
+
+    @Test
+    void testPreSend_LeavesOtherTopicsOpen() {
+        Message<?> subscribe = subscribe("/topic/patient/+15550100/confirmations", null);
+
+        assertSame(subscribe, interceptor.preSend(subscribe, channel));
+    }
+
+    private Message<?> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
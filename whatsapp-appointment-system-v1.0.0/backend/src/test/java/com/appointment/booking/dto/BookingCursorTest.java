@@ -0,0 +1,31 @@
+package com.appointment.booking.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingCursorTest {
+
+    @Test
+    void testDecode_RoundTripsEncodedCursor() {
+        // Given
+        BookingCursor cursor = new BookingCursor(LocalDate.of(2026, 10, 19), LocalTime.of(9, 30), 42L);
+
+        // When
+        BookingCursor decoded = BookingCursor.decode(cursor.encode(), BookingCursor.FIRST);
+
+        // Then
+        assertEquals(cursor, decoded);
+        assertEquals(BookingCursor.LAST, BookingCursor.decode(null, BookingCursor.LAST));
+    }
+
+    @Test
+    void testDecode_RejectsMalformedCursor() {
+        assertThrows(ResponseStatusException.class, () -> BookingCursor.decode("not-a-cursor", BookingCursor.FIRST));
+        assertThrows(ResponseStatusException.class, () -> BookingCursor.decode("%%%", BookingCursor.FIRST));
+    }
+}
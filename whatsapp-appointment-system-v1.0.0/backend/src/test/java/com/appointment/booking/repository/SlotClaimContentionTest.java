@@ -0,0 +1,101 @@
+package com.appointment.booking.repository;
+
+import com.appointment.booking.model.Slot;
+import com.appointment.booking.model.Slot.SlotStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads racing for a few slots: every slot must be claimed exactly once.
+ * Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.maximum-pool-size=10"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class SlotClaimContentionTest {
+
+    private static final int THREADS = 500;
+    private static final int SLOTS = 20;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testTransitionStatus_EachSlotClaimedExactlyOnceUnderContention() throws Exception {
+        // Given
+        List<Long> slotIds = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) {
+            slotIds.add(slotRepository.save(Slot.builder()
+                    .doctorId(1L)
+                    .slotDate(LocalDate.of(2026, 10, 19))
+                    .startTime(LocalTime.of(9, 0).plusMinutes(15L * i))
+                    .endTime(LocalTime.of(9, 15).plusMinutes(15L * i))
+                    .status(SlotStatus.AVAILABLE)
+                    .build()).getId());
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<Integer>> attempts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long slotId = slotIds.get(i % SLOTS);
+            attempts.add(pool.submit(() -> {
+                start.await();
+                return tx.execute(status -> slotRepository.transitionStatus(slotId, SlotStatus.AVAILABLE, SlotStatus.BOOKED));
+            }));
+        }
+        start.countDown();
+        int claimed = 0;
+        for (Future<Integer> attempt : attempts) {
+            claimed += attempt.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(SLOTS, claimed);
+        assertTrue(slotRepository.findAllById(slotIds).stream().allMatch(s -> s.getStatus() == SlotStatus.BOOKED));
+    }
+}
@@ -0,0 +1,69 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.repository.BookingRepository.BookingInterval;
+import com.appointment.booking.service.SlotPlanner.WorkingWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityEngineTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    @Test
+    void testBusyIntervals_MergesOverlappingBookingsPerDay() {
+        // Given
+        List<BookingInterval> bookings = List.of(
+                booking(MONDAY, LocalTime.of(10, 20), LocalTime.of(11, 0)),
+                booking(MONDAY, LocalTime.of(10, 0), LocalTime.of(10, 30)),
+                booking(MONDAY.plusDays(1), LocalTime.of(23, 30), LocalTime.MIDNIGHT));
+
+        // When
+        Map<LocalDate, int[]> busy = AvailabilityEngine.busyIntervals(bookings);
+
+        // Then
+        assertArrayEquals(new int[]{600, 660}, busy.get(MONDAY));
+        assertArrayEquals(new int[]{1410, 1440}, busy.get(MONDAY.plusDays(1)));
+    }
+
+    @Test
+    void testFreeSlotGrid_SkipsSlotsOverlappingBusyTimeAndKeepsGridAlignment() {
+        // Given
+        List<WorkingWindow> windows = List.of(
+                new WorkingWindow(LocalTime.of(9, 0), LocalTime.of(12, 0), 30),
+                new WorkingWindow(LocalTime.of(8, 0), LocalTime.of(9, 0), 20));
+        int[] busy = {600, 615, 620, 660}; // 10:00-10:15 and 10:20-11:00
+
+        // When
+        int[] slots = AvailabilityEngine.freeSlotGrid(windows, busy, 0);
+
+        // Then
+        assertArrayEquals(new int[]{480, 500, 500, 520, 520, 540, 540, 570, 570, 600, 660, 690, 690, 720}, slots);
+    }
+
+    @Test
+    void testFreeSlotGrid_SkipsSlotsStartingBeforeCutoff() {
+        // Given
+        List<WorkingWindow> windows = List.of(new WorkingWindow(LocalTime.of(9, 0), LocalTime.of(11, 0), 30));
+
+        // When
+        int[] slots = AvailabilityEngine.freeSlotGrid(windows, new int[0], 545);
+
+        // Then
+        assertArrayEquals(new int[]{570, 600, 600, 630, 630, 660}, slots);
+    }
+
+    private BookingInterval booking(LocalDate date, LocalTime start, LocalTime end) {
+        return new BookingInterval() {
+            @Override public Long getDoctorId() { return 1L; }
+            @Override public LocalDate getBookingDate() { return date; }
+            @Override public LocalTime getStartTime() { return start; }
+            @Override public LocalTime getEndTime() { return end; }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.appointment.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void testOnFailure_OpensAfterThresholdAndFailsFast() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(3, 1000, clock::get);
+
+        // When
+        assertFalse(breaker.onFailure());
+        assertFalse(breaker.onFailure());
+        boolean opened = breaker.onFailure();
+
+        // Then
+        assertTrue(opened);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testTryAcquirePermission_LetsOneTrialThroughAfterOpenDuration() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, clock::get);
+        breaker.onFailure();
+
+        // When
+        clock.set(1000);
+        boolean trial = breaker.tryAcquirePermission();
+        boolean second = breaker.tryAcquirePermission();
+
+        // Then
+        assertTrue(trial);
+        assertFalse(second);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    }
+
+    @Test
+    void testHalfOpen_ClosesOnSuccessAndReopensOnFailure() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, clock::get);
+        breaker.onFailure();
+        clock.set(1000);
+        breaker.tryAcquirePermission();
+
+        // When
+        boolean reopened = breaker.onFailure();
+        clock.set(2000);
+        breaker.tryAcquirePermission();
+        boolean recovered = breaker.onSuccess();
+
+        // Then
+        assertTrue(reopened);
+        assertTrue(recovered);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+}
@@ -0,0 +1,154 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.model.Slot;
+import com.appointment.booking.model.Slot.SlotStatus;
+import com.appointment.booking.repository.SlotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hold lifecycle on the slot rows: place, extend, consume and sweep.
+ * Runs the native queries against Postgres; needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "slot.hold.backend=database"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(DatabaseSlotHoldBackend.class)
+class DatabaseSlotHoldBackendTest {
+
+    private static final Duration HOLD = Duration.ofMinutes(5);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private DatabaseSlotHoldBackend holdBackend;
+
+    @AfterEach
+    void tearDown() {
+        slotRepository.deleteAll();
+    }
+
+    @Test
+    void testCreateHold_PlacesHoldAndRejectsOtherPatients() {
+        // Given
+        Long slotId = createSlot(LocalTime.of(9, 0));
+
+        // When
+        String token = holdBackend.createHold(slotId, 1L, HOLD);
+
+        // Then
+        assertNotNull(token);
+        assertNull(holdBackend.createHold(slotId, 2L, HOLD));
+        assertEquals(Set.of(slotId), holdBackend.findHeldSlotIds(List.of(slotId)));
+        assertEquals(token, holdBackend.findHoldToken(slotId).orElseThrow());
+
+        Slot slot = slotRepository.findById(slotId).orElseThrow();
+        assertEquals(SlotStatus.HELD, slot.getStatus());
+        assertEquals(1L, slot.getHeldBy());
+    }
+
+    @Test
+    void testCreateHold_SamePatientExtendsExistingHold() {
+        // Given
+        Long slotId = createSlot(LocalTime.of(9, 15));
+        String token = holdBackend.createHold(slotId, 1L, Duration.ofMinutes(1));
+        LocalDateTime firstExpiry = slotRepository.findById(slotId).orElseThrow().getHeldUntil();
+
+        // When
+        String extended = holdBackend.createHold(slotId, 1L, HOLD);
+
+        // Then
+        assertEquals(token, extended);
+        assertTrue(slotRepository.findById(slotId).orElseThrow().getHeldUntil().isAfter(firstExpiry));
+    }
+
+    @Test
+    void testConsumeHold_RequiresMatchingTokenAndPatient() {
+        // Given
+        Long slotId = createSlot(LocalTime.of(9, 30));
+        String token = holdBackend.createHold(slotId, 1L, HOLD);
+
+        // When / Then
+        assertFalse(holdBackend.consumeHold(slotId, "not-the-token", 1L));
+        assertFalse(holdBackend.consumeHold(slotId, token, 2L));
+        assertTrue(holdBackend.consumeHold(slotId, token, 1L));
+        assertFalse(holdBackend.consumeHold(slotId, token, 1L));
+
+        Slot slot = slotRepository.findById(slotId).orElseThrow();
+        assertEquals(SlotStatus.AVAILABLE, slot.getStatus());
+        assertNull(slot.getHoldToken());
+        assertTrue(holdBackend.findHeldSlotIds(List.of(slotId)).isEmpty());
+    }
+
+    @Test
+    void testSweepExpiredHolds_ReleasesOnlyExpiredHolds() {
+        // Given
+        Long expiredSlotId = createSlot(LocalTime.of(10, 0));
+        Long liveSlotId = createSlot(LocalTime.of(10, 15));
+        String expiredToken = holdBackend.createHold(expiredSlotId, 1L, Duration.ofSeconds(-1));
+        String liveToken = holdBackend.createHold(liveSlotId, 1L, HOLD);
+
+        // An expired hold is free before the sweeper runs
+        assertFalse(holdBackend.consumeHold(expiredSlotId, expiredToken, 1L));
+        assertEquals(Set.of(liveSlotId), holdBackend.findHeldSlotIds(List.of(expiredSlotId, liveSlotId)));
+
+        // When
+        holdBackend.sweepExpiredHolds();
+
+        // Then
+        Slot expired = slotRepository.findById(expiredSlotId).orElseThrow();
+        assertEquals(SlotStatus.AVAILABLE, expired.getStatus());
+        assertNull(expired.getHoldToken());
+        assertNull(expired.getHeldUntil());
+
+        Slot live = slotRepository.findById(liveSlotId).orElseThrow();
+        assertEquals(SlotStatus.HELD, live.getStatus());
+        assertEquals(liveToken, live.getHoldToken());
+    }
+
+    private Long createSlot(LocalTime start) {
+        return slotRepository.save(Slot.builder()
+                .doctorId(1L)
+                .slotDate(LocalDate.now().plusDays(1))
+                .startTime(start)
+                .endTime(start.plusMinutes(15))
+                .status(SlotStatus.AVAILABLE)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,60 @@
+package com.appointment.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldNearCacheTest {
+
+    @Test
+    void testGet_ForgetsEntriesAfterStalenessBound() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        HoldNearCache cache = new HoldNearCache(100, 10, clock::get);
+        cache.put(1L, true);
+        cache.put(2L, false);
+
+        // When
+        clock.set(99);
+        Boolean beforeExpiry = cache.get(1L);
+        clock.set(100);
+
+        // Then
+        assertEquals(Boolean.TRUE, beforeExpiry);
+        assertNull(cache.get(1L));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void testPut_StaysWithinMaxEntries() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        HoldNearCache cache = new HoldNearCache(100, 2, clock::get);
+        cache.put(1L, true);
+        clock.set(150);
+        cache.put(2L, true);
+
+        // When
+        cache.put(3L, false);
+
+        // Then
+        assertEquals(2, cache.size());
+        assertNull(cache.get(1L));
+        assertEquals(Boolean.FALSE, cache.get(3L));
+    }
+
+    @Test
+    void testInvalidate_RemovesEntry() {
+        // Given
+        HoldNearCache cache = new HoldNearCache(100, 10, () -> 0L);
+        cache.put(1L, true);
+
+        // When
+        cache.invalidate(1L);
+
+        // Then
+        assertNull(cache.get(1L));
+    }
+}
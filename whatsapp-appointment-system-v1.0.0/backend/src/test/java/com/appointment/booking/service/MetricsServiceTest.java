@@ -0,0 +1,68 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.dto.DashboardMetricsDto;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository;
+import com.appointment.booking.repository.DoctorDailyMetricsRepository.DailyMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsServiceTest {
+
+    private static final LocalDate WEDNESDAY = LocalDate.of(2026, 10, 21);
+
+    @Test
+    void testGetChartData_WeeklySumsRollupRowsPerMondayWeek() {
+        // Given
+        MetricsService service = new MetricsService(repositoryWith(List.of(
+                metrics(LocalDate.of(2026, 10, 19), 5, 1, "300.00"),
+                metrics(LocalDate.of(2026, 10, 25), 2, 0, "100.00"),
+                metrics(LocalDate.of(2026, 10, 18), 4, 0, "50.00"))));
+
+        // When
+        DashboardMetricsDto.ChartData chart = service.getChartData(7L, "weekly", WEDNESDAY);
+
+        // Then
+        List<DashboardMetricsDto.DataPoint> points = chart.getDataPoints();
+        assertEquals(MetricsService.WEEKLY_CHART_WEEKS, points.size());
+        DashboardMetricsDto.DataPoint current = points.get(points.size() - 1);
+        assertEquals("2026-10-19", current.getLabel());
+        assertEquals(6, current.getCount());
+        assertEquals(400.0, current.getAmount(), 0.001);
+        assertEquals(4, points.get(points.size() - 2).getCount());
+    }
+
+    @Test
+    void testGetChartData_DailyFillsDaysWithoutRows() {
+        // Given
+        MetricsService service = new MetricsService(repositoryWith(List.of(metrics(WEDNESDAY, 3, 0, "0"))));
+
+        // When
+        DashboardMetricsDto.ChartData chart = service.getChartData(7L, "daily", WEDNESDAY);
+
+        // Then
+        List<DashboardMetricsDto.DataPoint> points = chart.getDataPoints();
+        assertEquals(MetricsService.DAILY_CHART_DAYS, points.size());
+        assertEquals(0, points.get(0).getCount());
+        assertEquals(3, points.get(points.size() - 1).getCount());
+    }
+
+    private DoctorDailyMetricsRepository repositoryWith(List<DailyMetrics> rows) {
+        return new DoctorDailyMetricsRepository(null) {
+            @Override
+            public List<DailyMetrics> findByDoctorBetween(Long doctorId, LocalDate from, LocalDate to) {
+                return rows.stream()
+                        .filter(m -> !m.date().isBefore(from) && !m.date().isAfter(to))
+                        .toList();
+            }
+        };
+    }
+
+    private DailyMetrics metrics(LocalDate date, int total, int cancelled, String revenue) {
+        return new DailyMetrics(7L, date, total, 0, 0, 0, cancelled, new BigDecimal(revenue));
+    }
+}
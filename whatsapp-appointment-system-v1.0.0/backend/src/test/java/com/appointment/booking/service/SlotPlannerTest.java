@@ -0,0 +1,82 @@
+package com.appointment.booking.service;
+
+import com.appointment.booking.model.Availability;
+import com.appointment.booking.model.AvailabilityException;
+import com.appointment.booking.service.SlotPlanner.PlannedSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotPlannerTest {
+    
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    
+    private final SlotPlanner slotPlanner = new SlotPlanner();
+    
+    @Test
+    void testPlanDay_DefaultsToNineToFiveWhenNotConfigured() {
+        // When
+        List<PlannedSlot> slots = slotPlanner.planDay(MONDAY, List.of(), null);
+        
+        // Then
+        assertEquals(16, slots.size());
+        assertEquals(LocalTime.of(9, 0), slots.get(0).startTime());
+        assertEquals(LocalTime.of(17, 0), slots.get(15).endTime());
+    }
+    
+    @Test
+    void testPlanDay_UsesOnlyActiveAvailabilityForThatDay() {
+        // Given
+        Availability morning = availability(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0), 20, true);
+        Availability inactive = availability(DayOfWeek.MONDAY, LocalTime.of(14, 0), LocalTime.of(16, 0), 30, false);
+        Availability tuesday = availability(DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(17, 0), 30, true);
+        
+        // When
+        List<PlannedSlot> slots = slotPlanner.planDay(MONDAY, List.of(morning, inactive, tuesday), null);
+        
+        // Then
+        assertEquals(List.of(
+                new PlannedSlot(MONDAY, LocalTime.of(9, 0), LocalTime.of(9, 20)),
+                new PlannedSlot(MONDAY, LocalTime.of(9, 20), LocalTime.of(9, 40)),
+                new PlannedSlot(MONDAY, LocalTime.of(9, 40), LocalTime.of(10, 0))), slots);
+    }
+    
+    @Test
+    void testPlanRange_AppliesExceptions() {
+        // Given
+        AvailabilityException blocked = AvailabilityException.builder()
+                .exceptionDate(MONDAY)
+                .exceptionType(AvailabilityException.ExceptionType.BLOCKED)
+                .build();
+        AvailabilityException shortDay = AvailabilityException.builder()
+                .exceptionDate(MONDAY.plusDays(1))
+                .exceptionType(AvailabilityException.ExceptionType.MODIFIED_HOURS)
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(11, 0))
+                .build();
+        
+        // When
+        List<PlannedSlot> slots = slotPlanner.planRange(MONDAY, MONDAY.plusDays(1), List.of(),
+                Map.of(MONDAY, blocked, MONDAY.plusDays(1), shortDay));
+        
+        // Then
+        assertEquals(2, slots.size());
+        assertTrue(slots.stream().allMatch(s -> s.date().equals(MONDAY.plusDays(1))));
+    }
+    
+    private Availability availability(DayOfWeek day, LocalTime start, LocalTime end, int duration, boolean active) {
+        return Availability.builder()
+                .dayOfWeek(day)
+                .startTime(start)
+                .endTime(end)
+                .slotDurationMinutes(duration)
+                .isActive(active)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.appointment.common.queue;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeasedQueueWorkerTest {
+
+    @Mock
+    private LeasedQueue<String> queue;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LeasedQueueWorker<String> worker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(queue.tags(anyString())).thenReturn(Tags.empty());
+        worker = new LeasedQueueWorker<>(queue, new LeasedQueueWorker.Settings(2, 2, 60, 3, 5, 60),
+                "test-queue-", "test.queue", meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void testDrain_ClaimsUntilBatchComesBackShort() throws Exception {
+        // Given
+        when(queue.claimDue(2, 60)).thenReturn(List.of("a", "b"), List.of("c"));
+
+        // When
+        worker.drain();
+
+        // Then
+        verify(queue, times(2)).claimDue(2, 60);
+        verify(queue).process("a");
+        verify(queue).process("b");
+        verify(queue).process("c");
+        assertEquals(3, meterRegistry.counter("test.queue.processed").count());
+    }
+
+    @Test
+    void testDrain_RetriesFailureWithBackoff() throws Exception {
+        // Given
+        when(queue.claimDue(2, 60)).thenReturn(List.of("a"));
+        doThrow(new IllegalStateException("boom")).when(queue).process("a");
+        when(queue.attempts("a")).thenReturn(2);
+        when(queue.describe("a")).thenReturn("Item a");
+
+        // When
+        worker.drain();
+
+        // Then
+        verify(queue).markFailed("a", "boom", 10, false);
+        assertEquals(1, meterRegistry.counter("test.queue.retried").count());
+    }
+
+    @Test
+    void testDrain_GivesUpAfterLastAttempt() throws Exception {
+        // Given
+        when(queue.claimDue(2, 60)).thenReturn(List.of("a"));
+        doThrow(new IllegalStateException("boom")).when(queue).process("a");
+        when(queue.attempts("a")).thenReturn(3);
+        when(queue.describe("a")).thenReturn("Item a");
+
+        // When
+        worker.drain();
+
+        // Then
+        verify(queue).markFailed(eq("a"), anyString(), anyLong(), eq(true));
+        assertEquals(1, meterRegistry.counter("test.queue.failed").count());
+    }
+
+    @Test
+    void testBackoffSeconds_DoublesUpToMaximum() {
+        assertEquals(5, worker.backoffSeconds(1));
+        assertEquals(10, worker.backoffSeconds(2));
+        assertEquals(40, worker.backoffSeconds(4));
+        assertEquals(60, worker.backoffSeconds(5));
+        assertEquals(60, worker.backoffSeconds(50));
+    }
+}
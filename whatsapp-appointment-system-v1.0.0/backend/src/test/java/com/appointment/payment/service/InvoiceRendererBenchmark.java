@@ -0,0 +1,90 @@
+package com.appointment.payment.service;
+
+import com.appointment.payment.model.Invoice;
+import com.appointment.payment.model.Payment;
+import com.appointment.payment.model.PaymentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the layout based invoice renderer with the template renderer.
+ * <p>
+ * Run {@link #main} from the IDE (after a test-compile); the GC profiler adds
+ * {@code gc.alloc.rate.norm}, the bytes allocated per rendered invoice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceRendererBenchmark {
+
+    private LayoutInvoiceRenderer layoutRenderer;
+    private TemplateInvoiceRenderer templateRenderer;
+    private Invoice invoice;
+    private Payment payment;
+
+    @Setup
+    public void setUp() throws IOException {
+        layoutRenderer = new LayoutInvoiceRenderer();
+        templateRenderer = new TemplateInvoiceRenderer();
+        invoice = Invoice.builder()
+                .id(1L)
+                .invoiceNumber("INV-20240101-000001")
+                .bookingId(10L)
+                .paymentId(100L)
+                .patientId(1000L)
+                .doctorId(7L)
+                .amount(new BigDecimal("500.00"))
+                .taxAmount(new BigDecimal("90.00"))
+                .totalAmount(new BigDecimal("590.00"))
+                .issuedAt(LocalDateTime.of(2024, 1, 1, 10, 30))
+                .build();
+        payment = Payment.builder()
+                .id(100L)
+                .status(PaymentStatus.SUCCESS)
+                .paidAt(LocalDateTime.of(2024, 1, 1, 10, 29))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] layout() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        layoutRenderer.render(invoice, payment, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] template() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        templateRenderer.render(invoice, payment, out);
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvoiceRendererBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -1,5 +1,7 @@
 package com.appointment.payment.service;
 
+import com.appointment.common.outbox.OutboxEventType;
+import com.appointment.common.outbox.OutboxService;
 import com.appointment.payment.dto.PaymentLinkRequest;
 import com.appointment.payment.dto.PaymentLinkResponse;
 import com.appointment.payment.dto.WebhookPayload;
@@ -37,6 +39,12 @@ class PaymentServiceTest {
     @Mock
     private InvoiceService invoiceService;
     
+    @Mock
+    private OutboxService outboxService;
+    
+    @Mock
+    private WebhookDeduplicator webhookDeduplicator;
+    
     @InjectMocks
     private PaymentService paymentService;
     
@@ -122,16 +130,16 @@ class PaymentServiceTest {
                 .paymentLinkId("plink_123456")
                 .build();
         
-        when(paymentRepository.findByPaymentLinkId("plink_123456")).thenReturn(Optional.of(payment));
+        when(paymentRepository.findByPaymentLinkIdForUpdate("plink_123456")).thenReturn(Optional.of(payment));
         when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(invoiceRepository.findByPaymentId(payment.getId())).thenReturn(java.util.Collections.emptyList());
 
         // When
         paymentService.processWebhook(webhookPayload);
         
         // Then
         verify(paymentRepository, times(1)).save(any(Payment.class));
-        verify(invoiceService, times(1)).generateInvoice(any(Payment.class));
+        verify(outboxService, times(1)).append(OutboxEventType.PAYMENT_SUCCEEDED, 1L);
+        verify(invoiceService, never()).generateInvoice(any(Payment.class));
     }
     
     @Test
@@ -141,7 +149,7 @@ class PaymentServiceTest {
                 .paymentLinkId("plink_999999")
                 .build();
         
-        when(paymentRepository.findByPaymentLinkId("plink_999999")).thenReturn(Optional.empty());
+        when(paymentRepository.findByPaymentLinkIdForUpdate("plink_999999")).thenReturn(Optional.empty());
         // Removed unnecessary stubbing for findByProviderPaymentId
         
         // When
@@ -149,7 +157,27 @@ class PaymentServiceTest {
         
         // Then
         verify(paymentRepository, never()).save(any());
+        verify(outboxService, never()).append(any(), any());
         verify(invoiceService, never()).generateInvoice(any());
     }
+    
+    @Test
+    void testProcessWebhook_DuplicateEvent() {
+        // Given
+        WebhookPayload webhookPayload = WebhookPayload.builder()
+                .eventId("evt_123")
+                .paymentLinkId("plink_123456")
+                .status("SUCCESS")
+                .build();
+        
+        when(paymentProvider.getProviderName()).thenReturn("RAZORPAY");
+        when(webhookDeduplicator.claim("RAZORPAY", "evt_123")).thenReturn(false);
+        
+        // When
+        paymentService.processWebhook(webhookPayload);
+        
+        // Then
+        verifyNoInteractions(paymentRepository);
+        verify(outboxService, never()).append(any(), any());
+    }
 }
-
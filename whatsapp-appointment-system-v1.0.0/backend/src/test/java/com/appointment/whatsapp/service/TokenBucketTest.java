@@ -0,0 +1,40 @@
+package com.appointment.whatsapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void testTryAcquire_AllowsBurstThenReportsWaitUntilNextToken() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        // When / Then
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire());
+    }
+
+    @Test
+    void testTryAcquire_RefillsOverTimeButNotBeyondBurst() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        // Then
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+}
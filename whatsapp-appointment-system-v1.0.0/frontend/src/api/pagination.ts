@@ -0,0 +1,19 @@
+import axios, { AxiosRequestConfig } from 'axios';
+
+export interface CursorPage<T> {
+    items: T[];
+    // Cursor of the next page, null on the last one
+    nextCursor: string | null;
+}
+
+/**
+ * Fetches one page of a cursor-paged list endpoint; pass the previous page's nextCursor for the next one
+ */
+export const fetchPage = async <T>(url: string, config: AxiosRequestConfig = {}, cursor?: string | null): Promise<CursorPage<T>> => {
+    const res = await axios.get<T[]>(url, {
+        ...config,
+        params: { ...config.params, ...(cursor ? { cursor } : {}) }
+    });
+    const next = res.headers['x-next-cursor'];
+    return { items: res.data, nextCursor: typeof next === 'string' && next ? next : null };
+};
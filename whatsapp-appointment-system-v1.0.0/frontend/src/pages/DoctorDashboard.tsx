@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import {
   Container,
   Grid,
@@ -33,6 +33,7 @@ import { LocalizationProvider, DatePicker } from '@mui/x-date-pickers';
 import { AdapterDateFns } from '@mui/x-date-pickers/AdapterDateFns';
 import { BarChart, Bar, XAxis, YAxis, CartesianGrid, Tooltip, Legend, LineChart, Line, ResponsiveContainer } from 'recharts';
 import axios from 'axios';
+import { fetchPage } from '../api/pagination';
 import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
 import { doctorTheme } from '../theme/dashboardThemes';
@@ -58,6 +59,19 @@ interface Appointment {
   paymentLink?: string;
 }
 
+// Payloads pushed on /topic/doctor/{id}/bookings and /topic/doctor/{id}/metrics
+interface BookingsMessage {
+  bookings: Array<{ bookingId: number; bookingDate: string; startTime: string; status: string }>;
+}
+
+interface MetricsMessage {
+  days: Array<{ date: string; bookingsTotal: number; completedCount: number; cancelledCount: number; revenue: number }>;
+}
+
+// Statuses listed on the dashboard; a booking moving to any other status leaves the list
+const LISTED_STATUSES = ['PENDING', 'CONFIRMED', 'ACCEPTED', 'COMPLETED', 'PAID'];
+const RELOAD_DEBOUNCE_MS = 1000;
+
 const DoctorDashboard: React.FC = () => {
   const storedUser = localStorage.getItem('user');
   const parsedUser = storedUser ? JSON.parse(storedUser) : null;
@@ -82,6 +96,7 @@ const DoctorDashboard: React.FC = () => {
   // Patient Search State
   const [searchPhone, setSearchPhone] = useState('');
   const [patientHistory, setPatientHistory] = useState<any[]>([]);
+  const [historyCursor, setHistoryCursor] = useState<string | null>(null);
   const [searching, setSearching] = useState(false);
   const [hasSearched, setHasSearched] = useState(false);
 
@@ -100,6 +115,11 @@ const DoctorDashboard: React.FC = () => {
   const [anchorEl, setAnchorEl] = useState<null | HTMLElement>(null);
   const [addressDialogOpen, setAddressDialogOpen] = useState(false);
 
+  // Live updates: deltas are applied in place, anything they cannot carry is refetched once per debounce window
+  const appointmentsRef = useRef<Appointment[]>([]);
+  const pendingReloads = useRef(new Set<'appointments' | 'chart'>());
+  const reloadTimer = useRef<ReturnType<typeof setTimeout> | null>(null);
+
   // Get logged-in user info
   const doctorId = parsedUser?.userId || parsedUser?.id;
   const username = parsedUser?.username;
@@ -113,64 +133,143 @@ const DoctorDashboard: React.FC = () => {
     }
 
     loadDashboardData();
-    setupWebSocket();
+    const stompClient = setupWebSocket();
 
     return () => {
-      // Cleanup WebSocket
+      stompClient.deactivate();
+      if (reloadTimer.current) {
+        clearTimeout(reloadTimer.current);
+        reloadTimer.current = null;
+      }
+      pendingReloads.current.clear();
     };
   }, [selectedDate, chartPeriod, navigate]);
 
-  const loadDashboardData = async () => {
-    try {
-      const token = localStorage.getItem('token');
-      const dateStr = selectedDate.toISOString().split('T')[0];
-      const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
+  useEffect(() => {
+    appointmentsRef.current = appointments;
+  }, [appointments]);
 
-      // Load metrics
-      const metricsRes = await axios.get(`${apiUrl}/doctor/dashboard/metrics`, {
-        params: { doctorId, date: dateStr },
-        headers: { Authorization: `Bearer ${token}` }
-      });
-      setMetrics(metricsRes.data);
+  const selectedDateStr = () => selectedDate.toISOString().split('T')[0];
 
-      // Load appointments
-      const appointmentsRes = await axios.get(`${apiUrl}/doctor/dashboard/bookings`, {
-        params: { doctorId, date: dateStr },
-        headers: { Authorization: `Bearer ${token}` }
-      });
-      setAppointments(appointmentsRes.data);
+  const loadMetrics = async () => {
+    const token = localStorage.getItem('token');
+    const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
+    const metricsRes = await axios.get(`${apiUrl}/doctor/dashboard/metrics`, {
+      params: { doctorId, date: selectedDateStr() },
+      headers: { Authorization: `Bearer ${token}` }
+    });
+    setMetrics(metricsRes.data);
+  };
 
-      // Load chart data
-      const chartRes = await axios.get(`${apiUrl}/doctor/dashboard/metrics/charts`, {
-        params: { doctorId, period: chartPeriod, startDate: dateStr },
-        headers: { Authorization: `Bearer ${token}` }
-      });
-      if (chartPeriod === 'daily') {
-        setDailyData(chartRes.data.dataPoints);
-      } else {
-        setWeeklyData(chartRes.data.dataPoints);
-      }
+  const loadAppointments = async () => {
+    const token = localStorage.getItem('token');
+    const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
+    const appointmentsRes = await axios.get(`${apiUrl}/doctor/dashboard/bookings`, {
+      params: { doctorId, date: selectedDateStr() },
+      headers: { Authorization: `Bearer ${token}` }
+    });
+    setAppointments(appointmentsRes.data);
+  };
+
+  const loadChartData = async () => {
+    const token = localStorage.getItem('token');
+    const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
+    const chartRes = await axios.get(`${apiUrl}/doctor/dashboard/metrics/charts`, {
+      params: { doctorId, period: chartPeriod, startDate: selectedDateStr() },
+      headers: { Authorization: `Bearer ${token}` }
+    });
+    if (chartPeriod === 'daily') {
+      setDailyData(chartRes.data.dataPoints);
+    } else {
+      setWeeklyData(chartRes.data.dataPoints);
+    }
+  };
+
+  const loadDashboardData = async () => {
+    try {
+      await Promise.all([loadMetrics(), loadAppointments(), loadChartData()]);
     } catch (error) {
       console.error('Failed to load dashboard data', error);
     }
   };
 
+  const scheduleReload = (part: 'appointments' | 'chart') => {
+    pendingReloads.current.add(part);
+    if (reloadTimer.current) {
+      return;
+    }
+    reloadTimer.current = setTimeout(async () => {
+      reloadTimer.current = null;
+      const parts = Array.from(pendingReloads.current);
+      pendingReloads.current.clear();
+      try {
+        await Promise.all(parts.map((p) => (p === 'appointments' ? loadAppointments() : loadChartData())));
+      } catch (error) {
+        console.error('Failed to refresh dashboard data', error);
+      }
+    }, RELOAD_DEBOUNCE_MS);
+  };
+
+  const applyBookingsMessage = (message: BookingsMessage) => {
+    const deltas = message.bookings.filter((b) => b.bookingDate === selectedDateStr());
+    if (deltas.length === 0) {
+      return;
+    }
+    // A booking new to this list needs patient and payment details the delta does not carry
+    const known = new Set(appointmentsRef.current.map((a) => a.id));
+    if (deltas.some((d) => !known.has(d.bookingId) && LISTED_STATUSES.includes(d.status))) {
+      scheduleReload('appointments');
+    }
+    const statusById = new Map(deltas.map((d) => [d.bookingId, d.status]));
+    setAppointments((prev) => prev
+      .map((a) => (statusById.has(a.id) ? { ...a, status: statusById.get(a.id)! } : a))
+      .filter((a) => LISTED_STATUSES.includes(a.status)));
+  };
+
+  const applyMetricsMessage = (message: MetricsMessage) => {
+    const today = message.days.find((d) => d.date === selectedDateStr());
+    if (today) {
+      setMetrics((prev) => ({
+        ...prev,
+        slotsBooked: today.bookingsTotal - today.cancelledCount,
+        customersAttendedToday: today.completedCount,
+      }));
+    }
+    if (chartPeriod === 'daily') {
+      const byDate = new Map(message.days.map((d) => [d.date, d]));
+      setDailyData((prev) => prev.map((point) => {
+        const day = byDate.get(point.label);
+        return day ? { ...point, count: day.bookingsTotal - day.cancelledCount, amount: Number(day.revenue) } : point;
+      }));
+    } else if (message.days.length > 0) {
+      // Weekly points sum seven days, only some of which are in the message
+      scheduleReload('chart');
+    }
+  };
+
   const setupWebSocket = () => {
-    const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
     const wsUrl = 'http://localhost:8080';
-    const socket = new SockJS(`${wsUrl}/ws`);
     const stompClient = new Client({
-      webSocketFactory: () => socket as any,
+      // A fresh socket per attempt, so reconnects do not reuse the closed one
+      webSocketFactory: () => new SockJS(`${wsUrl}/ws`) as any,
+      // The doctor topics only accept subscriptions from the doctor's own session
+      connectHeaders: { Authorization: `Bearer ${localStorage.getItem('token')}` },
       reconnectDelay: 5000,
     });
 
     stompClient.onConnect = () => {
-      stompClient.subscribe(`/topic/doctor/${doctorId}/pending-requests`, () => {
-        loadDashboardData();
+      // Each topic carries at most one coalesced update per push interval.
+      // Pending requests are not shown here; accepting one arrives as a booking change
+      stompClient.subscribe(`/topic/doctor/${doctorId}/bookings`, (frame) => {
+        applyBookingsMessage(JSON.parse(frame.body));
+      });
+      stompClient.subscribe(`/topic/doctor/${doctorId}/metrics`, (frame) => {
+        applyMetricsMessage(JSON.parse(frame.body));
       });
     };
 
     stompClient.activate();
+    return stompClient;
   };
 
   const handleMenuClick = (event: React.MouseEvent<HTMLElement>) => {
@@ -221,21 +320,26 @@ const DoctorDashboard: React.FC = () => {
     }
   };
 
-  const handleSearchPatient = async () => {
+  // Without a cursor a new search starts; with one the next page is appended
+  const handleSearchPatient = async (cursor?: string) => {
     if (!searchPhone) return;
     setSearching(true);
     setHasSearched(true);
     try {
       const token = localStorage.getItem('token');
       const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
-      const response = await axios.get(`${apiUrl}/doctor/dashboard/patients/search`, {
+      const page = await fetchPage<any>(`${apiUrl}/doctor/dashboard/patients/search`, {
         params: { phone: searchPhone },
         headers: { Authorization: `Bearer ${token}` }
-      });
-      setPatientHistory(response.data);
+      }, cursor);
+      setPatientHistory(prev => (cursor ? [...prev, ...page.items] : page.items));
+      setHistoryCursor(page.nextCursor);
     } catch (e) {
       console.error("Search failed", e);
-      setPatientHistory([]);
+      if (!cursor) {
+        setPatientHistory([]);
+        setHistoryCursor(null);
+      }
     } finally {
       setSearching(false);
     }
@@ -345,10 +449,10 @@ const DoctorDashboard: React.FC = () => {
                   size="small"
                   fullWidth
                   value={searchPhone}
-                  onChange={(e) => setSearchPhone(e.target.value)}
+                  onChange={(e) => { setSearchPhone(e.target.value); setHistoryCursor(null); }}
                   onKeyPress={(e) => e.key === 'Enter' && handleSearchPatient()}
                 />
-                <Button variant="contained" onClick={handleSearchPatient} disabled={searching} sx={{ backgroundColor: doctorTheme.primaryButton }}>
+                <Button variant="contained" onClick={() => handleSearchPatient()} disabled={searching} sx={{ backgroundColor: doctorTheme.primaryButton }}>
                   {searching ? 'Searching...' : 'Search'}
                 </Button>
               </Box>
@@ -380,6 +484,11 @@ const DoctorDashboard: React.FC = () => {
                   </Table>
                 </TableContainer>
               )}
+              {hasSearched && historyCursor && (
+                <Box sx={{ textAlign: 'center', mt: 1 }}>
+                  <Button size="small" onClick={() => handleSearchPatient(historyCursor)} disabled={searching}>Load more</Button>
+                </Box>
+              )}
             </Paper>
           </Grid>
           {/* Date Picker Row */}
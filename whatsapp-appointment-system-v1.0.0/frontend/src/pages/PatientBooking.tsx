@@ -22,6 +22,7 @@ import {
 import { LocalizationProvider, DatePicker } from '@mui/x-date-pickers';
 import { AdapterDateFns } from '@mui/x-date-pickers/AdapterDateFns';
 import axios from 'axios';
+import { fetchPage } from '../api/pagination';
 import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
 import { patientTheme } from '../theme/dashboardThemes';
@@ -202,10 +203,11 @@ const PatientBooking: React.FC = () => {
     try {
       if (parsedUser?.id) {
         const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
-        const response = await axios.get(`${apiUrl}/patient/bookings/list`, {
+        // Only the current booking is shown, and it is among the most recent ones
+        const page = await fetchPage<any>(`${apiUrl}/patient/bookings/list`, {
           params: { patientId: parsedUser.id }
         });
-        const mappedBookings = response.data.map((b: any) => ({
+        const mappedBookings = page.items.map((b: any) => ({
           id: b.id,
           doctorId: b.doctorId,
           doctorName: b.doctorName,
@@ -321,7 +323,7 @@ const PatientBooking: React.FC = () => {
                   <DatePicker label="Date" value={selectedDate} onChange={handleDateChange} />
                 </LocalizationProvider>
                 {availableSlots.map(s => (
-                  <Button key={s.id} onClick={() => setSelectedTime(s.startTime)} variant={selectedTime === s.startTime ? 'contained' : 'outlined'}>{s.startTime}</Button>
+                  <Button key={s.startTime} onClick={() => setSelectedTime(s.startTime)} variant={selectedTime === s.startTime ? 'contained' : 'outlined'}>{s.startTime}</Button>
                 ))}
                 {myAddresses.length > 0 && (
                   <Select value={selectedAddressId} onChange={(e) => setSelectedAddressId(e.target.value)}>
@@ -34,6 +34,7 @@ import { DatePicker } from '@mui/x-date-pickers/DatePicker';
 import { LocalizationProvider } from '@mui/x-date-pickers/LocalizationProvider';
 import { AdapterDateFns } from '@mui/x-date-pickers/AdapterDateFns';
 import axios from 'axios';
+import { fetchPage } from '../api/pagination';
 import AddressManager from '../components/AddressManager';
 
 interface Doctor {
@@ -75,6 +76,7 @@ const PatientDashboard: React.FC = () => {
   const navigate = useNavigate();
   const [doctors, setDoctors] = useState<Doctor[]>([]);
   const [bookings, setBookings] = useState<Booking[]>([]);
+  const [bookingsCursor, setBookingsCursor] = useState<string | null>(null);
   const [loading, setLoading] = useState(false);
   const [specializationFilter, setSpecializationFilter] = useState<string>('');
 
@@ -124,15 +126,17 @@ const PatientDashboard: React.FC = () => {
     }
   };
 
-  const loadMyBookings = async () => {
+  // Without a cursor the list restarts from the most recent booking
+  const loadMyBookings = async (cursor?: string) => {
     try {
       const token = localStorage.getItem('token');
       const apiUrl = process.env.REACT_APP_API_URL || 'http://localhost:8080/api';
-      const res = await axios.get(`${apiUrl}/patient/bookings/list`, {
+      const page = await fetchPage<Booking>(`${apiUrl}/patient/bookings/list`, {
         params: { patientId },
         headers: { Authorization: `Bearer ${token}` }
-      });
-      setBookings(res.data);
+      }, cursor);
+      setBookings(prev => (cursor ? [...prev, ...page.items] : page.items));
+      setBookingsCursor(page.nextCursor);
     } catch (err) {
       console.error("Failed to load bookings", err);
     }
@@ -380,6 +384,11 @@ const PatientDashboard: React.FC = () => {
                   </TableBody>
                 </Table>
               </TableContainer>
+              {bookingsCursor && (
+                <Box sx={{ textAlign: 'center', mt: 1 }}>
+                  <Button size="small" onClick={() => loadMyBookings(bookingsCursor)}>Load more</Button>
+                </Box>
+              )}
             </Paper>
           </Grid>
         </Grid>
@@ -410,7 +419,7 @@ const PatientDashboard: React.FC = () => {
               <Box sx={{ display: 'flex', gap: 1, flexWrap: 'wrap', maxHeight: 150, overflowY: 'auto' }}>
                 {availableSlots.length > 0 ? availableSlots.filter(s => s.isAvailable).map(slot => (
                   <Chip
-                    key={slot.id}
+                    key={slot.startTime}
                     label={slot.startTime}
                     clickable
                     color={bookingData.slotTime === slot.startTime ? 'primary' : 'default'}
@@ -81,6 +81,7 @@ const PendingRequests: React.FC = () => {
         const socket = new SockJS(`${wsUrl}/ws`);
         const stompClient = new Client({
             webSocketFactory: () => socket as any,
+            connectHeaders: { Authorization: `Bearer ${localStorage.getItem('token')}` },
             reconnectDelay: 5000,
         });
 